@@ -0,0 +1,65 @@
+package UserService.Controller;
+
+import UserService.dto.CreateUserRequest;
+import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserPage;
+import UserService.dto.UserResponse;
+import UserService.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// Профиль reactive: те же пути и тела запросов, что у UserController, на WebFlux. Ответы без ссылок HATEOAS,
+// курсор следующей страницы передается полем nextCursor. Массовые операции, импорт, выгрузка и подсказки
+// остаются только в servlet-стеке
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request) {
+        return userService.createUser(request);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserResponse> getUserById(@PathVariable Long id) {
+        return userService.getUserById(id);
+    }
+
+    @GetMapping
+    public Mono<UserPage> getAllUsers(@RequestParam(required = false) Long after,
+                                      @RequestParam(required = false) Integer limit) {
+        return userService.getUsersPage(after, limit);
+    }
+
+    @PutMapping("/update/{id}")
+    public Mono<UserResponse> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request) {
+        return userService.updateUser(id, request);
+    }
+
+    @DeleteMapping("/delete/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id);
+    }
+
+    @GetMapping("/search")
+    public Mono<UserPage> searchUsersByName(@RequestParam String name,
+                                            @RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
+        return userService.searchUsersByName(name, after, limit);
+    }
+
+    @GetMapping("/count")
+    public Mono<Long> getUsersCount(@RequestParam(defaultValue = "false") boolean approximate) {
+        return userService.getUserCount(approximate);
+    }
+}
@@ -1,29 +1,52 @@
 package UserService.Controller;
 
+import UserService.config.RequestPhaseMetrics;
+import UserService.dto.BulkCreateUsersResponse;
 import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserImportResult;
+import UserService.dto.UserPage;
 import UserService.dto.UserResponse;
+import UserService.dto.UserSuggestion;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserBulkService;
+import UserService.service.UserExportService;
+import UserService.service.UserImportService;
 import UserService.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
-import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
+// Servlet-стек. В профиле reactive те же операции обслуживает ReactiveUserController.
+// Пользователи отдаются без ссылок, HAL со ссылками - по Accept: application/hal+json. У операций с HAL по два
+// обработчика, и вариант выбирает Spring MVC по Accept с учетом q. Обработчик без ссылок отвечает и на */*
+// (и на запрос без Accept): внутренним клиентам ссылки не нужны, а их сборка и объем ответа дороже самих данных
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 @Tag(name = "Управление пользователями",
@@ -31,91 +54,164 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 public class UserController {
 
     private final UserService userService;
-
-    @PostMapping
+    private final UserExportService userExportService;
+    private final UserBulkService userBulkService;
+    private final UserImportService userImportService;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserLinks userLinks;
+    private final RequestPhaseMetrics requestPhaseMetrics;
+
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE})
     @Operation(
             summary = "Создать пользователя",
             description = "Создает нового пользователя в системе. " +
                     "Email должен быть уникальным."
     )
     @ResponseStatus(HttpStatus.CREATED)
-    public EntityModel<UserResponse> createUser(
+    public UserResponse createUser(
             @Parameter(description = "Данные для создания пользователя", required = true)
             @Valid @RequestBody
             @Schema(description = "Запрос на создание пользователя", requiredMode = Schema.RequiredMode.REQUIRED)
             CreateUserRequest request) {
 
+        return userService.createUser(request);
+    }
+
+    @PostMapping(produces = MediaTypes.HAL_JSON_VALUE)
+    @Operation(
+            summary = "Создать пользователя",
+            description = "Создает нового пользователя в системе и возвращает его со ссылками HAL."
+    )
+    @ResponseStatus(HttpStatus.CREATED)
+    public EntityModel<UserResponse> createUserHal(@Valid @RequestBody CreateUserRequest request) {
+
         UserResponse userResponse = userService.createUser(request);
 
-        EntityModel<UserResponse> resource = EntityModel.of(userResponse);
+        return requestPhaseMetrics.record(RequestPhaseMetrics.LINKS, () -> {
+            EntityModel<UserResponse> resource = userLinks.base().item(userResponse);
+
+            resource.add(linkTo(methodOn(UserController.class).getAllUsersHal(null, null)).withRel("all-users"));
+
+            return resource;
+        });
+    }
+
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Массово создать пользователей",
+            description = "Создает до " + UserBulkService.MAX_BULK_SIZE + " пользователей пакетными вставками. " +
+                    "Результат возвращается по каждому элементу: невалидные данные и занятые email " +
+                    "не прерывают обработку остальных."
+    )
+    public BulkCreateUsersResponse createUsersBulk(
+            @Parameter(description = "Список пользователей для создания", required = true)
+            @RequestBody
+            List<CreateUserRequest> requests) {
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(userResponse.getId())).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(userResponse.getId(), null)).withRel("update"));
-        resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(userResponse.getId()).toString(), "delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        return userBulkService.createUsers(requests);
+    }
 
-        return resource;
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(
+            summary = "Импортировать пользователей из CSV",
+            description = "Потоково загружает CSV с колонками name,email,age (первая строка - заголовок) " +
+                    "через COPY. Невалидные строки и занятые email пропускаются. Данные фиксируются порциями, " +
+                    "поэтому при ошибке уже загруженные порции остаются в базе."
+    )
+    public UserImportResult importUsers(HttpServletRequest request) throws IOException {
+        return userImportService.importCsv(request.getInputStream());
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE})
     @Operation(
             summary = "Получить пользователя по ID",
             description = "Возвращает информацию о пользователе по его идентификатору"
     )
-    public EntityModel<UserResponse> getUserById(
+    public UserResponse getUserById(
             @Parameter(description = "ID пользователя", example = "3")
             @PathVariable
             @Schema(description = "Идентификатор пользователя", type = "integer", format = "int64", example = "3")
             Long id) {
 
-        UserResponse userResponse = userService.getUserById(id);
+        return userService.getUserById(id);
+    }
 
+    @GetMapping(value = "/{id}", produces = MediaTypes.HAL_JSON_VALUE)
+    @Operation(
+            summary = "Получить пользователя по ID",
+            description = "Возвращает пользователя со ссылками HAL"
+    )
+    public EntityModel<UserResponse> getUserByIdHal(@PathVariable Long id) {
 
-        EntityModel<UserResponse> resource = EntityModel.of(userResponse);
+        UserResponse userResponse = userService.getUserById(id);
 
+        return requestPhaseMetrics.record(RequestPhaseMetrics.LINKS, () -> {
+            UserLinks.Base links = userLinks.base();
+            EntityModel<UserResponse> resource = EntityModel.of(userResponse, links.self(id), links.update(id), links.delete(id));
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"));
-        resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(id).toString(), "delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
-        resource.add(linkTo(methodOn(UserController.class).searchUsersByName("")).withRel("search"));
+            resource.add(linkTo(methodOn(UserController.class).getAllUsersHal(null, null)).withRel("all-users"));
+            resource.add(linkTo(methodOn(UserController.class).searchUsersByNameHal("", null, null)).withRel("search"));
 
-        return resource;
+            return resource;
+        });
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE})
     @Operation(
-            summary = "Получить всех пользователей ",
-            description = "Возвращает информацию о всех пользователях"
+            summary = "Получить пользователей",
+            description = "Возвращает страницу пользователей, упорядоченных по ID. " +
+                    "Курсор следующей страницы - поле nextCursor."
     )
-    public CollectionModel<EntityModel<UserResponse>> getAllUsers() {
+    public UserPage getAllUsers(
+            @Parameter(description = "ID последнего пользователя предыдущей страницы", example = "100")
+            @RequestParam(required = false)
+            @Schema(description = "Курсор страницы", type = "integer", format = "int64", example = "100")
+            Long after,
+            @Parameter(description = "Размер страницы, не больше " + UserService.MAX_PAGE_SIZE, example = "50")
+            @RequestParam(required = false)
+            @Schema(description = "Размер страницы", type = "integer", example = "50")
+            Integer limit) {
+
+        return userService.getUsersPage(after, limit);
+    }
 
-        List<EntityModel<UserResponse>> users = userService.getAllUsers().stream()
-                .map(user -> {
-                    EntityModel<UserResponse> resource = EntityModel.of(user);
-                    resource.add(linkTo(methodOn(UserController.class).getUserById(user.getId())).withSelfRel());
-                    resource.add(linkTo(methodOn(UserController.class).updateUser(user.getId(), null)).withRel("update"));
-                    resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(user.getId()).toString(), "delete"));
-                    return resource;
-                })
-                .collect(Collectors.toList());
+    @GetMapping(produces = MediaTypes.HAL_JSON_VALUE)
+    @Operation(
+            summary = "Получить пользователей",
+            description = "Возвращает страницу пользователей со ссылками HAL, курсор следующей страницы - ссылка next."
+    )
+    public CollectionModel<EntityModel<UserResponse>> getAllUsersHal(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
 
+        UserPage page = userService.getUsersPage(after, limit);
 
-        CollectionModel<EntityModel<UserResponse>> collectionModel = CollectionModel.of(users);
+        return requestPhaseMetrics.record(RequestPhaseMetrics.LINKS, () -> {
+            UserLinks.Base links = userLinks.base();
+            List<EntityModel<UserResponse>> users = page.getUsers().stream()
+                    .map(links::item)
+                    .collect(Collectors.toList());
 
-        collectionModel.add(linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel());
-        collectionModel.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create"));
-        collectionModel.add(linkTo(methodOn(UserController.class).searchUsersByName("")).withRel("search"));
 
-        return collectionModel;
+            CollectionModel<EntityModel<UserResponse>> collectionModel = CollectionModel.of(users);
+
+            collectionModel.add(linkTo(methodOn(UserController.class).getAllUsersHal(after, limit)).withSelfRel());
+            if (page.getNextCursor() != null) {
+                collectionModel.add(linkTo(methodOn(UserController.class).getAllUsersHal(page.getNextCursor(), limit)).withRel("next"));
+            }
+            collectionModel.add(linkTo(methodOn(UserController.class).createUserHal(null)).withRel("create"));
+            collectionModel.add(linkTo(methodOn(UserController.class).searchUsersByNameHal("", null, null)).withRel("search"));
+
+            return collectionModel;
+        });
     }
 
-    @PutMapping("/update/{id}")
+    @PutMapping(value = "/update/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE})
     @Operation(
             summary = "Обновить пользователя",
             description = "Обновляет информацию о пользователе по указанному ID"
     )
-    public EntityModel<UserResponse> updateUser(
+    public UserResponse updateUser(
             @Parameter(description = "ID пользователя для обновления", example = "3")
             @PathVariable
             @Schema(description = "Идентификатор пользователя", type = "integer", format = "int64", example = "1")
@@ -125,16 +221,26 @@ public class UserController {
             @Schema(description = "Запрос на обновление пользователя", requiredMode = Schema.RequiredMode.REQUIRED)
             UpdateUserRequest request) {
 
+        return userService.updateUser(id, request);
+    }
+
+    @PutMapping(value = "/update/{id}", produces = MediaTypes.HAL_JSON_VALUE)
+    @Operation(
+            summary = "Обновить пользователя",
+            description = "Обновляет пользователя и возвращает его со ссылками HAL"
+    )
+    public EntityModel<UserResponse> updateUserHal(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request) {
+
         UserResponse userResponse = userService.updateUser(id, request);
 
-        EntityModel<UserResponse> resource = EntityModel.of(userResponse);
+        return requestPhaseMetrics.record(RequestPhaseMetrics.LINKS, () -> {
+            UserLinks.Base links = userLinks.base();
+            EntityModel<UserResponse> resource = EntityModel.of(userResponse, links.self(id), links.update(id), links.delete(id));
 
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"));
-        resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(id).toString(), "delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+            resource.add(linkTo(methodOn(UserController.class).getAllUsersHal(null, null)).withRel("all-users"));
 
-        return resource;
+            return resource;
+        });
     }
 
     @DeleteMapping("/delete/{id}")
@@ -151,43 +257,119 @@ public class UserController {
         userService.deleteUser(id);
     }
 
-    @GetMapping("/search")
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE})
     @Operation(
             summary = "Поиск пользователей по имени",
             description = "Ищет пользователей по частичному совпадению имени (fullName). " +
-                    "Поиск не чувствителен к регистру."
+                    "Поиск не чувствителен к регистру. Результаты упорядочены по ID и выдаются постранично, " +
+                    "курсор следующей страницы - поле nextCursor."
     )
-    public CollectionModel<EntityModel<UserResponse>> searchUsersByName(
+    public UserPage searchUsersByName(
             @Parameter(description = "Имя или часть имени для поиска", required = true, example = "John")
             @RequestParam
             @Schema(description = "Поисковый запрос по имени", requiredMode = Schema.RequiredMode.REQUIRED, example = "John")
-            String name) {
-
-        List<EntityModel<UserResponse>> users = userService.searchUsersByName(name).stream()
-                .map(user -> {
-                    EntityModel<UserResponse> resource = EntityModel.of(user);
-                    resource.add(linkTo(methodOn(UserController.class).getUserById(user.getId())).withSelfRel());
-                    return resource;
-                })
-                .collect(Collectors.toList());
-
-        CollectionModel<EntityModel<UserResponse>> collectionModel = CollectionModel.of(users);
+            String name,
+            @Parameter(description = "ID последнего пользователя предыдущей страницы", example = "100")
+            @RequestParam(required = false)
+            @Schema(description = "Курсор страницы", type = "integer", format = "int64", example = "100")
+            Long after,
+            @Parameter(description = "Размер страницы, не больше " + UserService.MAX_PAGE_SIZE, example = "50")
+            @RequestParam(required = false)
+            @Schema(description = "Размер страницы", type = "integer", example = "50")
+            Integer limit) {
+
+        return userService.searchUsersByName(name, after, limit);
+    }
 
-        collectionModel.add(linkTo(methodOn(UserController.class).searchUsersByName(name)).withSelfRel());
-        collectionModel.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
-        collectionModel.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create"));
+    @GetMapping(value = "/search", produces = MediaTypes.HAL_JSON_VALUE)
+    @Operation(
+            summary = "Поиск пользователей по имени",
+            description = "Страница результатов поиска со ссылками HAL, курсор следующей страницы - ссылка next."
+    )
+    public CollectionModel<EntityModel<UserResponse>> searchUsersByNameHal(
+            @RequestParam String name,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+
+        UserPage page = userService.searchUsersByName(name, after, limit);
+
+        return requestPhaseMetrics.record(RequestPhaseMetrics.LINKS, () -> {
+            UserLinks.Base links = userLinks.base();
+            List<EntityModel<UserResponse>> users = page.getUsers().stream()
+                    .map(user -> EntityModel.of(user, links.self(user.getId())))
+                    .collect(Collectors.toList());
+
+            CollectionModel<EntityModel<UserResponse>> collectionModel = CollectionModel.of(users);
+
+            collectionModel.add(linkTo(methodOn(UserController.class).searchUsersByNameHal(name, after, limit)).withSelfRel());
+            if (page.getNextCursor() != null) {
+                collectionModel.add(linkTo(methodOn(UserController.class)
+                        .searchUsersByNameHal(name, page.getNextCursor(), limit)).withRel("next"));
+            }
+            collectionModel.add(linkTo(methodOn(UserController.class).getAllUsersHal(null, null)).withRel("all-users"));
+            collectionModel.add(linkTo(methodOn(UserController.class).createUserHal(null)).withRel("create"));
+
+            return collectionModel;
+        });
+    }
 
-        return collectionModel;
+    @GetMapping("/autocomplete")
+    @Operation(
+            summary = "Подсказки по началу имени или email",
+            description = "Возвращает пользователей, у которых имя, любое слово имени или email начинаются " +
+                    "с указанной строки, без учета регистра. Ответ строится из индекса в памяти без обращения к базе."
+    )
+    public List<UserSuggestion> autocomplete(
+            @Parameter(description = "Начало имени или email", required = true, example = "joh")
+            @RequestParam
+            @Schema(description = "Префикс для подсказок", requiredMode = Schema.RequiredMode.REQUIRED, example = "joh")
+            String prefix,
+            @Parameter(description = "Количество подсказок, не больше " + UserAutocompleteIndex.MAX_LIMIT, example = "10")
+            @RequestParam(required = false)
+            @Schema(description = "Количество подсказок", type = "integer", example = "10")
+            Integer limit) {
+
+        return userAutocompleteIndex.suggest(prefix, limit);
     }
 
     @GetMapping("/count")
     @Operation(
             summary = "Получить количество пользователей",
-            description = "Возвращает общее количество пользователей в системе."
+            description = "Возвращает общее количество пользователей в системе из счетчика, который периодически " +
+                    "сверяется с базой. С approximate=true возвращается оценка из статистики Postgres."
     )
     @Schema(description = "Количество пользователей", type = "integer", format = "int64", example = "42")
-    public Long getUsersCount() {
-        return userService.getUserCount();
+    public Long getUsersCount(
+            @Parameter(description = "Вернуть оценку из статистики Postgres вместо точного значения", example = "false")
+            @RequestParam(defaultValue = "false")
+            boolean approximate) {
+        return userService.getUserCount(approximate);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Выгрузить всех пользователей",
+            description = "Потоково выгружает всю таблицу пользователей в формате NDJSON или CSV. " +
+                    "Потребление памяти не зависит от количества строк."
+    )
+    public void exportUsers(
+            @Parameter(description = "Формат выгрузки: ndjson или csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson")
+            @Schema(description = "Формат выгрузки", allowableValues = {"ndjson", "csv"}, example = "ndjson")
+            String format,
+            HttpServletResponse response) throws IOException {
+
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                prepareExport(response, "application/x-ndjson", "users.ndjson");
+                userExportService.exportNdjson(response.getOutputStream());
+            }
+            case "csv" -> {
+                prepareExport(response, "text/csv", "users.csv");
+                userExportService.exportCsv(response.getOutputStream());
+            }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неподдерживаемый формат выгрузки: " + format);
+        }
     }
 
     // Feign
@@ -198,6 +380,10 @@ public class UserController {
         return ResponseEntity.ok("Notification Service статус: " + healthStatus);
     }
 
-
-
-}
\ No newline at end of file
+    private void prepareExport(HttpServletResponse response, String contentType, String fileName) {
+        response.setContentType(contentType);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+    }
+}
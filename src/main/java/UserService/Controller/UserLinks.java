@@ -0,0 +1,82 @@
+package UserService.Controller;
+
+import UserService.dto.UserResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+// Ссылки на пользователя для UserController. linkTo(methodOn(...)) создает прокси и разбирает маппинги
+// через рефлексию на каждую ссылку, поэтому пути относительно контроллера вычисляются один раз при старте,
+// а на каждую строку остается только подстановка id. Базовый URI зависит от запроса (хост, X-Forwarded-*)
+// и берется один раз на ответ. Результат совпадает с linkTo(methodOn(...)) символ в символ
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserLinks {
+
+    // Значение, которое не встречается в путях контроллера: по нему шаблон делится на части до и после id
+    private static final long ID_MARKER = Long.MAX_VALUE;
+
+    private final Template self;
+    private final Template update;
+    private final Template delete;
+
+    public UserLinks() {
+        String root = linkTo(UserController.class).toString();
+        this.self = Template.of(root, linkTo(methodOn(UserController.class).getUserByIdHal(ID_MARKER)).toString());
+        this.update = Template.of(root, linkTo(methodOn(UserController.class).updateUserHal(ID_MARKER, null)).toString());
+        this.delete = Template.of(root, linkTo(UserController.class).slash("delete").slash(ID_MARKER).toString());
+    }
+
+    // Вызывается в потоке запроса
+    public Base base() {
+        return new Base(linkTo(UserController.class).toString());
+    }
+
+    public final class Base {
+
+        private final String root;
+
+        private Base(String root) {
+            this.root = root;
+        }
+
+        public Link self(Long id) {
+            return Link.of(self.expand(root, id), IanaLinkRelations.SELF);
+        }
+
+        public Link update(Long id) {
+            return Link.of(update.expand(root, id), "update");
+        }
+
+        public Link delete(Long id) {
+            return Link.of(delete.expand(root, id), "delete");
+        }
+
+        // Ссылки строки списка: self, update, delete
+        public EntityModel<UserResponse> item(UserResponse user) {
+            return EntityModel.of(user, self(user.getId()), update(user.getId()), delete(user.getId()));
+        }
+    }
+
+    // Путь относительно корня контроллера, разделенный на части до и после id
+    private record Template(String prefix, String suffix) {
+
+        static Template of(String root, String href) {
+            String marker = String.valueOf(ID_MARKER);
+            int at = href.indexOf(marker);
+            if (!href.startsWith(root) || at < 0) {
+                throw new IllegalStateException("Не удалось построить шаблон ссылки из " + href);
+            }
+            return new Template(href.substring(root.length(), at), href.substring(at + marker.length()));
+        }
+
+        String expand(String root, Long id) {
+            return root + prefix + id + suffix;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package UserService.actuator;
+
+import UserService.dto.UserReplayProgress;
+import UserService.service.UserEventReplayService;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// Операции: progress - прогресс, start(fromId, toId) - запуск, start(resume = true) - продолжение
+// с контрольной точки, stop - остановка. По умолчанию открыт только по JMX, см. management.endpoints в application.yml
+@Component
+@Endpoint(id = "replay")
+@RequiredArgsConstructor
+public class UserEventReplayEndpoint {
+
+    private final UserEventReplayService userEventReplayService;
+
+    @ReadOperation
+    public UserReplayProgress progress() {
+        return userEventReplayService.progress();
+    }
+
+    @WriteOperation
+    public UserReplayProgress start(@Nullable Long fromId,
+                                    @Nullable Long toId,
+                                    @Nullable Boolean resume) {
+        if (Boolean.TRUE.equals(resume)) {
+            return userEventReplayService.resume();
+        }
+        return userEventReplayService.start(fromId, toId);
+    }
+
+    @DeleteOperation
+    public UserReplayProgress stop() {
+        return userEventReplayService.stop();
+    }
+}
@@ -0,0 +1,32 @@
+package UserService.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    // Запись и удаление из кэша откладываются до коммита транзакции,
+    // чтобы откаченное изменение не попало в кэш
+    @Bean
+    public CacheManager cacheManager(@Value("${user-service.cache.users.maximum-size:10000}") long maximumSize,
+                                     @Value("${user-service.cache.users.ttl:10m}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                // Без recordStats счётчики попаданий и промахов в метриках останутся нулевыми
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
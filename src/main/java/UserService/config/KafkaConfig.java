@@ -0,0 +1,61 @@
+package UserService.config;
+
+import UserService.kafka.UserEventProducer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String CACHE_INVALIDATION_CONTAINER_FACTORY = "userCacheInvalidationContainerFactory";
+
+    // Значение события кодирует UserEventCodecs, поэтому продюсеру нужен только сериализатор байтов.
+    // Остальные настройки и метрики берутся из фабрики, настроенной через spring.kafka.producer
+    @Bean
+    @SuppressWarnings("unchecked")
+    public KafkaTemplate<String, byte[]> userEventKafkaTemplate(ProducerFactory<?, ?> producerFactory) {
+        return new KafkaTemplate<>((ProducerFactory<String, byte[]>) producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+    }
+
+    // Compaction оставляет по каждому ключу только последнее состояние, поэтому новый потребитель
+    // загружает всех пользователей, прочитав топик с начала. Создается там, где работает relay
+    @Bean
+    @ConditionalOnProperty(prefix = "user-service.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public NewTopic usersStateTopic(@Value("${user-service.users-state.partitions:3}") int partitions,
+                                    @Value("${user-service.users-state.replicas:1}") int replicas) {
+        return TopicBuilder.name(UserEventProducer.STATE_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
+
+    // Для UserCacheInvalidationListener: у каждого запуска своя группа, и смещения ей не нужны, поэтому
+    // подтверждение ручное, а слушатель его не вызывает. Без сохраненных смещений группа удаляется брокером,
+    // как только экземпляр отключается, и не копится после перезапусков
+    @Bean(CACHE_INVALIDATION_CONTAINER_FACTORY)
+    @ConditionalOnProperty(prefix = "user-service.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> userCacheInvalidationContainerFactory(
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,92 @@
+package UserService.config;
+
+import UserService.dao.UserDao;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Таймеры задержек. Гистограммы для Prometheus и SLO-корзины задаются в management.metrics.distribution
+// (application.yml), здесь только сами измерения:
+// user.service - операции UserService (@Timed), user.dao - методы UserDao, user.feign.client - вызовы Feign-клиентов.
+// Отправка в Kafka (user.kafka.send) измеряется в UserEventOutboxRelay, фазы запроса - в RequestPhaseMetrics
+@Configuration
+public class MetricsConfig {
+
+    // К тегам class и method добавляется endpoint, из которого вызвана операция
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> tags = joinPoint -> Tags.of(
+                "class", joinPoint.getStaticPart().getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getStaticPart().getSignature().getName(),
+                "endpoint", RequestPhaseMetrics.currentEndpoint());
+        return new TimedAspect(meterRegistry, tags);
+    }
+
+    // Spring Data сообщает о каждом вызове метода репозитория вместе с длительностью, поэтому обертка
+    // вокруг UserDao не нужна. Время также попадает в фазу db запроса, в рамках которого выполнен вызов
+    @Bean
+    public static BeanPostProcessor userDaoMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                ObjectProvider<RequestPhaseMetrics> requestPhaseMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean
+                        && UserDao.class.equals(factoryBean.getObjectType())) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation -> {
+                        long nanos = invocation.getDuration(TimeUnit.NANOSECONDS);
+                        Timer.builder("user.dao")
+                                .description("Время выполнения методов UserDao")
+                                .tag("method", invocation.getMethod().getName())
+                                .tag("state", invocation.getResult().getState().name())
+                                .register(meterRegistry.getObject())
+                                .record(nanos, TimeUnit.NANOSECONDS);
+                        requestPhaseMetrics.getObject().record(RequestPhaseMetrics.DB, nanos);
+                    }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Capability подхватывается всеми Feign-клиентами и оборачивает HTTP-клиент, включая балансировку.
+    // status - класс ответа (2xx, 5xx) или IO_ERROR, если ответа не было
+    @Bean
+    public Capability feignClientMetricsCapability(MeterRegistry meterRegistry) {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return (request, options) -> {
+                    long started = System.nanoTime();
+                    String status = "IO_ERROR";
+                    try {
+                        Response response = client.execute(request, options);
+                        status = response.status() / 100 + "xx";
+                        return response;
+                    } finally {
+                        Timer.builder("user.feign.client")
+                                .description("Время вызова внешних сервисов через Feign")
+                                .tag("client", request.requestTemplate().feignTarget().name())
+                                .tag("method", request.requestTemplate().methodMetadata().configKey())
+                                .tag("status", status)
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package UserService.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+// Профиль reactive: API пользователей на WebFlux и R2DBC (ReactiveUserController). Неблокирующий пул открывается
+// к той же базе, что и Hikari. JPA, Flyway, relay outbox и остальные фоновые задачи по-прежнему работают через JDBC
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionFactory(@Value("${spring.datasource.url}") String jdbcUrl,
+                                                 @Value("${spring.datasource.username}") String username,
+                                                 @Value("${spring.datasource.password}") String password,
+                                                 @Value("${user-service.r2dbc.pool.initial-size:0}") int initialSize,
+                                                 @Value("${user-service.r2dbc.pool.max-size:20}") int maxSize,
+                                                 @Value("${user-service.r2dbc.pool.acquire-timeout:5s}") Duration acquireTimeout) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl(jdbcUrl)).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        // По умолчанию пул пуст до первого запроса: соединения к базе не открываются заранее на каждой реплике
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(initialSize, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(acquireTimeout)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // Менеджер транзакций R2DBC не регистрируется бином: иначе @Transactional без квалификатора в JPA-коде
+    // не сможет выбрать между двумя TransactionManager
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    // jdbc:postgresql://host:5432/db?params -> r2dbc:postgresql://host:5432/db. Параметры JDBC-драйвера
+    // к R2DBC неприменимы и отбрасываются
+    static String r2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        return "r2dbc:" + (query < 0 ? url : url.substring(0, query));
+    }
+}
@@ -0,0 +1,57 @@
+package UserService.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Время обработки запроса по фазам для каждого endpoint: db - запросы UserDao (MetricsConfig),
+// serialization - запись тела ответа конвертером (ResponseSerializationMetrics), links - сборка HAL в UserController.
+// Endpoint - HTTP-метод и шаблон пути обработчика; вне servlet-запроса (планировщик, reactive) - none
+@Component
+@RequiredArgsConstructor
+public class RequestPhaseMetrics {
+
+    public static final String TIMER = "user.request.phase";
+    public static final String DB = "db";
+    public static final String SERIALIZATION = "serialization";
+    public static final String LINKS = "links";
+
+    private static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String phase, Supplier<T> work) {
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(phase, System.nanoTime() - started);
+        }
+    }
+
+    public void record(String phase, long nanos) {
+        Timer.builder(TIMER)
+                .description("Время фазы обработки запроса: база, сериализация ответа, ссылки HAL")
+                .tag("endpoint", currentEndpoint())
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static String currentEndpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return NO_ENDPOINT;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NO_ENDPOINT : request.getMethod() + " " + pattern;
+    }
+}
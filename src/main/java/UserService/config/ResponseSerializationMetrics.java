@@ -0,0 +1,52 @@
+package UserService.config;
+
+import UserService.Controller.UserController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Фаза serialization для RequestPhaseMetrics. beforeBodyWrite вызывается непосредственно перед записью тела
+// конвертером, afterCompletion - после нее, разница и есть время сериализации и записи ответа.
+// Потоковые ответы (StreamingResponseBody) через ResponseBodyAdvice не проходят и не учитываются.
+// Учитываются только ответы UserController; перехватчик регистрируется на тот же путь в WebMvcConfig
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ResponseSerializationMetrics implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    private static final String STARTED_ATTRIBUTE = ResponseSerializationMetrics.class.getName() + ".started";
+
+    private final RequestPhaseMetrics requestPhaseMetrics;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return UserController.class.isAssignableFrom(returnType.getContainingClass());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            servletRequest.getServletRequest().setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_ATTRIBUTE) instanceof Long started) {
+            requestPhaseMetrics.record(RequestPhaseMetrics.SERIALIZATION, System.nanoTime() - started);
+        }
+    }
+}
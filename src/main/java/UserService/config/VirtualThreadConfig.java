@@ -0,0 +1,47 @@
+package UserService.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Режим виртуальных потоков (профиль virtual-threads): Tomcat, applicationTaskExecutor и планировщик работают
+// на виртуальных потоках через spring.threads.virtual.enabled, а обращения к базе ограничены размером пула Hikari
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new BoundedDataSource(hikari, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BoundedDataSource bounded) {
+                Gauge.builder("user.db.permits.waiting", bounded, BoundedDataSource::waiting)
+                        .description("Потоки, ожидающие разрешения на соединение с базой")
+                        .register(registry);
+                Gauge.builder("user.db.permits.available", bounded, BoundedDataSource::available)
+                        .description("Свободные разрешения на соединение с базой")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package UserService.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Настройка Spring MVC для servlet-режима. Перехватчик ResponseSerializationMetrics завершает фазу serialization
+// и регистрируется на путь UserController, к которому ограничен и сам ResponseBodyAdvice
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ResponseSerializationMetrics responseSerializationMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(responseSerializationMetrics).addPathPatterns("/api/users/**");
+    }
+}
@@ -0,0 +1,106 @@
+package UserService.dao;
+
+import UserService.entity.User;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Таблица users через R2DBC для профиля reactive. Запросы повторяют UserDao: keyset-пагинация по id,
+// поиск через ILIKE по GIN-индексу pg_trgm
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserDao {
+
+    private static final String COLUMNS = "id, name, email, age, created_at";
+
+    private static final String FIND_BY_ID_SQL =
+            "SELECT " + COLUMNS + " FROM users WHERE id = :id";
+    private static final String LOCK_BY_ID_SQL =
+            "SELECT " + COLUMNS + " FROM users WHERE id = :id FOR UPDATE";
+    private static final String FIND_PAGE_SQL =
+            "SELECT " + COLUMNS + " FROM users WHERE id > :after ORDER BY id LIMIT :limit";
+    private static final String SEARCH_SQL =
+            "SELECT " + COLUMNS + " FROM users WHERE name ILIKE :pattern AND id > :after ORDER BY id LIMIT :limit";
+    // id из той же последовательности, что и у Hibernate: одиночный nextval не попадает в его пулы
+    private static final String INSERT_SQL =
+            "INSERT INTO users (id, name, email, age, created_at) " +
+                    "VALUES (nextval('users_seq'), :name, :email, :age, LOCALTIMESTAMP) RETURNING " + COLUMNS;
+    private static final String UPDATE_SQL =
+            "UPDATE users SET name = :name, email = :email, age = :age WHERE id = :id";
+    // Удаленная строка возвращается тем же запросом: ее данные нужны для события USER_DELETED
+    private static final String DELETE_SQL =
+            "DELETE FROM users WHERE id = :id RETURNING " + COLUMNS;
+    private static final String ESTIMATE_COUNT_SQL =
+            "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('users' AS regclass)";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<User> findById(long id) {
+        return databaseClient.sql(FIND_BY_ID_SQL).bind("id", id).map(ReactiveUserDao::toUser).one();
+    }
+
+    // Строка блокируется до конца транзакции, чтобы изменения считались от актуального состояния
+    public Mono<User> lockById(long id) {
+        return databaseClient.sql(LOCK_BY_ID_SQL).bind("id", id).map(ReactiveUserDao::toUser).one();
+    }
+
+    public Flux<User> findPage(long after, int limit) {
+        return databaseClient.sql(FIND_PAGE_SQL)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserDao::toUser)
+                .all();
+    }
+
+    public Flux<User> searchByNameContaining(String pattern, long after, int limit) {
+        return databaseClient.sql(SEARCH_SQL)
+                .bind("pattern", pattern)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserDao::toUser)
+                .all();
+    }
+
+    public Mono<User> insert(String name, String email, Integer age) {
+        return databaseClient.sql(INSERT_SQL)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("age", Parameter.fromOrEmpty(age, Integer.class))
+                .map(ReactiveUserDao::toUser)
+                .one();
+    }
+
+    public Mono<Long> update(User user) {
+        return databaseClient.sql(UPDATE_SQL)
+                .bind("id", user.getId())
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", Parameter.fromOrEmpty(user.getAge(), Integer.class))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<User> deleteById(long id) {
+        return databaseClient.sql(DELETE_SQL).bind("id", id).map(ReactiveUserDao::toUser).one();
+    }
+
+    // -1, если статистики еще нет
+    public Mono<Long> estimateCount() {
+        return databaseClient.sql(ESTIMATE_COUNT_SQL).map(row -> row.get(0, Long.class)).one();
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User(row.get("name", String.class), row.get("email", String.class), row.get("age", Integer.class));
+        user.setId(row.get("id", Long.class));
+        user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        return user;
+    }
+}
@@ -0,0 +1,37 @@
+package UserService.dao;
+
+import UserService.dao.UserEventOutboxDao.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Запись в user_event_outbox через R2DBC в текущей реактивной транзакции. Публикует события тот же
+// UserEventOutboxRelay, что и для servlet-стека
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserEventOutboxDao {
+
+    // Вся порция одним запросом: массивы разворачиваются в строки в исходном порядке
+    private static final String INSERT_SQL = """
+            INSERT INTO user_event_outbox (topic, message_key, payload)
+            SELECT * FROM unnest(CAST(:topics AS text[]), CAST(:keys AS text[]), CAST(:payloads AS text[]))
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> appendAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT_SQL)
+                .bind("topics", events.stream().map(OutboxEvent::topic).toArray(String[]::new))
+                .bind("keys", events.stream().map(OutboxEvent::key).toArray(String[]::new))
+                .bind("payloads", events.stream().map(OutboxEvent::payload).toArray(String[]::new))
+                .then();
+    }
+}
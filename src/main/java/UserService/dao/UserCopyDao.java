@@ -0,0 +1,163 @@
+package UserService.dao;
+
+import UserService.dto.UserImportResult;
+import UserService.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.util.PSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Массовые операции через протокол COPY PostgreSQL в обход Hibernate
+@Repository
+@RequiredArgsConstructor
+public class UserCopyDao {
+
+    private static final String EXPORT_CSV_SQL =
+            "COPY (SELECT id, name, email, age, created_at FROM users ORDER BY id) " +
+                    "TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE users_import (seq BIGSERIAL, name TEXT, email TEXT, age TEXT)";
+    private static final String IMPORT_CSV_SQL =
+            "COPY users_import (name, email, age) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String INDEX_STAGING_SQL =
+            "ALTER TABLE users_import ADD PRIMARY KEY (seq)";
+    // Валидация повторяет ограничения CreateUserRequest; занятые email пропускаются через ON CONFLICT.
+    // id берётся из той же последовательности, что и у Hibernate: одиночный nextval не попадает в его пулы
+    // События USER_CREATED и снимки для users-state пишутся в outbox тем же запросом, поэтому фиксируются вместе с порцией
+    private static final String MERGE_CHUNK_SQL = """
+            WITH imported AS (
+                INSERT INTO users (id, name, email, age, created_at)
+                SELECT nextval('users_seq'), name, email, age, LOCALTIMESTAMP
+                FROM (SELECT seq,
+                             trim(name) AS name,
+                             trim(email) AS email,
+                             NULLIF(trim(age), '') AS raw_age,
+                             CASE WHEN trim(age) ~ '^[0-9]{1,3}$' THEN trim(age)::int END AS age
+                      FROM users_import
+                      WHERE seq >= ? AND seq < ?) staged
+                WHERE length(name) BETWEEN 2 AND 100
+                  AND length(email) <= 100
+                  AND email ~ '^[^@\\s]+@[^@\\s]+$'
+                  AND (raw_age IS NULL OR age BETWEEN 0 AND 150)
+                ORDER BY seq
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, name, email, age, created_at
+            ), events AS (
+                INSERT INTO user_event_outbox (message_key, payload)
+                SELECT id::text, json_build_object(
+                        'eventType', 'USER_CREATED',
+                        'userId', id,
+                        'userName', name,
+                        'userEmail', email,
+                        'timestamp', to_char(created_at, 'YYYY-MM-DD"T"HH24:MI:SS.US'))::text
+                FROM imported
+                ORDER BY id
+            ), snapshots AS (
+                INSERT INTO user_event_outbox (topic, message_key)
+                SELECT 'users-state', id::text
+                FROM imported
+                ORDER BY id
+            )
+            SELECT id, name, email, age, created_at FROM imported ORDER BY id
+            """;
+    private static final String DROP_STAGING_SQL = "DROP TABLE IF EXISTS users_import";
+    private static final int MERGE_CHUNK_SIZE = 20_000;
+
+    private final DataSource dataSource;
+
+    public long copyOutCsv(OutputStream out) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(EXPORT_CSV_SQL, out);
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Ошибка при выгрузке пользователей через COPY", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // CSV (name,email,age с заголовком) загружается во временную таблицу через COPY и переносится в users
+    // порциями, каждая в своей транзакции вместе с событиями в outbox. После фиксации порции вызывается onChunkImported
+    public UserImportResult copyInCsv(InputStream csv, Consumer<List<User>> onChunkImported) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            try {
+                connection.setAutoCommit(false);
+                long total = stage(connection, csv);
+                long imported = 0;
+                for (long from = 1; from <= total; from += MERGE_CHUNK_SIZE) {
+                    List<User> chunk = mergeChunk(connection, from, from + MERGE_CHUNK_SIZE);
+                    connection.commit();
+                    imported += chunk.size();
+                    onChunkImported.accept(chunk);
+                }
+                return new UserImportResult(total, imported, total - imported);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(DROP_STAGING_SQL);
+                }
+                connection.commit();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Ошибка при импорте пользователей через COPY", e);
+        }
+    }
+
+    private long stage(Connection connection, InputStream csv) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+        long total;
+        try {
+            total = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(IMPORT_CSV_SQL, csv);
+        } catch (PSQLException e) {
+            throw new IllegalArgumentException("Некорректный CSV: " + e.getServerErrorMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения CSV", e);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(INDEX_STAGING_SQL);
+            statement.execute("ANALYZE users_import");
+        }
+        connection.commit();
+        return total;
+    }
+
+    private List<User> mergeChunk(Connection connection, long from, long to) throws SQLException {
+        List<User> imported = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_CHUNK_SQL)) {
+            statement.setLong(1, from);
+            statement.setLong(2, to);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User(rs.getString("name"), rs.getString("email"), rs.getObject("age", Integer.class));
+                    user.setId(rs.getLong("id"));
+                    user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                    imported.add(user);
+                }
+            }
+        }
+        return imported;
+    }
+}
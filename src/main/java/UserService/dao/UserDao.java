@@ -1,19 +1,49 @@
 package UserService.dao;
 
 import UserService.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface UserDao extends JpaRepository<User, Long> {
 
       Optional<User> findByEmail(String email);
 
-      @Query("FROM User WHERE name LIKE :name")
-
-      List<User> findByName(String name);
+      // Подстрока без учёта регистра; ILIKE обслуживается GIN-индексом pg_trgm (V3__users_name_trgm.sql).
+      // Постранично по id, как и общий список
+      @Query(value = "SELECT * FROM users WHERE name ILIKE :pattern AND id > :after ORDER BY id LIMIT :limit",
+              nativeQuery = true)
+      List<User> searchByNameContaining(String pattern, long after, int limit);
 
       boolean existsByEmail(String email);
+
+      @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+      Set<String> findExistingEmails(Collection<String> emails);
+
+      // Keyset-пагинация по первичному ключу: стоимость зависит от размера страницы, а не от размера таблицы
+      List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+      List<User> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long after, Long to, Limit limit);
+
+      // Оценка числа строк из статистики планировщика, обновляется autovacuum/ANALYZE; -1 если статистики еще нет
+      @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('users' AS regclass)",
+              nativeQuery = true)
+      long estimateCount();
+
+      // Потоковое чтение курсором: строки приходят из Postgres порциями по fetch size
+      @QueryHints({
+              @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+              @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+      })
+      @Query("FROM User ORDER BY id")
+      Stream<User> streamAllOrderedById();
 }
@@ -0,0 +1,139 @@
+package UserService.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Таблица user_event_outbox (V4__user_event_outbox.sql, V5__user_event_outbox_topic.sql). JdbcTemplate работает
+// в текущей транзакции JPA, поэтому событие фиксируется или откатывается вместе с изменением пользователя
+@Repository
+@RequiredArgsConstructor
+public class UserEventOutboxDao {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_event_outbox (topic, message_key, payload) VALUES (?, ?, ?)";
+    // Для строк без payload значение - текущее состояние пользователя с id из ключа. Оно читается в момент
+    // публикации, поэтому последнее опубликованное состояние совпадает с базой независимо от гонок между
+    // транзакциями. Если пользователя уже нет, payload остается null
+    private static final String NEXT_BATCH_SQL = """
+            SELECT o.id, o.topic, o.message_key,
+                   COALESCE(o.payload, (
+                       SELECT json_build_object(
+                               'id', u.id,
+                               'name', u.name,
+                               'email', u.email,
+                               'age', u.age,
+                               'createdAt', to_char(u.created_at, 'YYYY-MM-DD"T"HH24:MI:SS.US'))::text
+                       FROM users u
+                       WHERE u.id = CAST(o.message_key AS BIGINT))) AS payload
+            FROM user_event_outbox o
+            ORDER BY o.id
+            LIMIT ?
+            """;
+    // Снимки всех пользователей порциями по id, без чтения строк в приложение
+    private static final String APPEND_SNAPSHOTS_SQL = """
+            WITH batch AS (
+                SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?
+            ), snapshots AS (
+                INSERT INTO user_event_outbox (topic, message_key)
+                SELECT ?, id::text FROM batch ORDER BY id
+            )
+            SELECT max(id) FROM batch
+            """;
+    // Ключ сессионной advisory-блокировки relay, общий для всех реплик
+    private static final String TRY_RELAY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('user_event_outbox_relay'))";
+    private static final String RELAY_UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('user_event_outbox_relay'))";
+    private static final String DELETE_SQL =
+            "DELETE FROM user_event_outbox WHERE id = ANY (?)";
+    // min/max по первичному ключу читаются из индекса, поэтому запрос дешевый при любом размере очереди.
+    // Разность id - оценка сверху: откаченные транзакции оставляют пропуски.
+    // Возраст считается по часам базы тем же LOCALTIMESTAMP, которым заполнен created_at, поэтому
+    // не зависит ни от часов, ни от часового пояса реплики
+    private static final String STATS_SQL = """
+            SELECT COALESCE(max(id) - min(id) + 1, 0) AS depth,
+                   COALESCE(EXTRACT(EPOCH FROM LOCALTIMESTAMP - (
+                       SELECT created_at FROM user_event_outbox ORDER BY id LIMIT 1)) * 1000, 0)::bigint AS oldest_age_ms
+            FROM user_event_outbox
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // id присваивается базой, у новых событий он null. payload null - снимок состояния пользователя
+    public record OutboxEvent(Long id, String topic, String key, String payload) {
+    }
+
+    // oldestAgeMillis - возраст самого старого события, 0 для пустой очереди
+    public record OutboxStats(long depth, long oldestAgeMillis) {
+    }
+
+    public void appendAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.topic());
+            statement.setString(2, event.key());
+            statement.setString(3, event.payload());
+        });
+    }
+
+    // Возвращает id последнего пользователя порции или null, если пользователей после afterId нет
+    public Long appendSnapshots(String topic, long afterId, int limit) {
+        return jdbcTemplate.queryForObject(APPEND_SNAPSHOTS_SQL, Long.class, afterId, limit, topic);
+    }
+
+    // Публикует только та реплика, что держит блокировку: если бы порции разбирались параллельно, события
+    // одного пользователя из соседних порций могли бы уйти в Kafka в обратном порядке. Блокировка сессионная
+    // и держится на отдельном соединении без транзакции, поэтому ожидание подтверждений Kafka не держит
+    // ни блокировки строк, ни открытой транзакции. При обрыве соединения блокировку снимает сама база.
+    // Возвращает пустой Optional, если блокировку держит другая реплика
+    public <T> Optional<T> withRelayLock(Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!queryFlag(connection, TRY_RELAY_LOCK_SQL)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(work.get());
+            } finally {
+                queryFlag(connection, RELAY_UNLOCK_SQL);
+            }
+        });
+    }
+
+    // Первые limit событий очереди по id. Без блокировок строк: очередь разбирает только держатель withRelayLock
+    public List<OutboxEvent> nextBatch(int limit) {
+        return jdbcTemplate.query(NEXT_BATCH_SQL,
+                (rs, rowNum) -> new OutboxEvent(rs.getLong("id"), rs.getString("topic"), rs.getString("message_key"),
+                        rs.getString("payload")),
+                limit);
+    }
+
+    public OutboxStats stats() {
+        return jdbcTemplate.queryForObject(STATS_SQL, (rs, rowNum) ->
+                new OutboxStats(rs.getLong("depth"), rs.getLong("oldest_age_ms")));
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    private static boolean queryFlag(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
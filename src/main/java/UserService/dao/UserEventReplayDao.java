@@ -0,0 +1,73 @@
+package UserService.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Таблица user_event_replay (V6__user_event_replay.sql)
+@Repository
+@RequiredArgsConstructor
+public class UserEventReplayDao {
+
+    private static final String FIND_SQL = """
+            SELECT status, from_id, to_id, last_id, replayed, error, started_at, updated_at
+            FROM user_event_replay
+            WHERE id = 1
+            """;
+    private static final String START_SQL = """
+            INSERT INTO user_event_replay (id, status, from_id, to_id, last_id, replayed, error, started_at, updated_at)
+            VALUES (1, 'RUNNING', ?, ?, ?, 0, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP)
+            ON CONFLICT (id) DO UPDATE
+            SET status = 'RUNNING', from_id = EXCLUDED.from_id, to_id = EXCLUDED.to_id, last_id = EXCLUDED.last_id,
+                replayed = 0, error = NULL, started_at = LOCALTIMESTAMP, updated_at = LOCALTIMESTAMP
+            """;
+    private static final String RESUME_SQL =
+            "UPDATE user_event_replay SET status = 'RUNNING', error = NULL, updated_at = LOCALTIMESTAMP WHERE id = 1";
+    // Сравнение с прежним last_id не дает двум экземплярам продвигать одну контрольную точку
+    private static final String ADVANCE_SQL = """
+            UPDATE user_event_replay
+            SET last_id = ?, replayed = replayed + ?, updated_at = LOCALTIMESTAMP
+            WHERE id = 1 AND status = 'RUNNING' AND last_id = ?
+            """;
+    private static final String FINISH_SQL =
+            "UPDATE user_event_replay SET status = ?, error = ?, updated_at = LOCALTIMESTAMP WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ReplayCheckpoint(String status, long fromId, long toId, long lastId, long replayed, String error,
+                                   LocalDateTime startedAt, LocalDateTime updatedAt) {
+    }
+
+    public Optional<ReplayCheckpoint> find() {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new ReplayCheckpoint(
+                        rs.getString("status"),
+                        rs.getLong("from_id"),
+                        rs.getLong("to_id"),
+                        rs.getLong("last_id"),
+                        rs.getLong("replayed"),
+                        rs.getString("error"),
+                        rs.getObject("started_at", LocalDateTime.class),
+                        rs.getObject("updated_at", LocalDateTime.class)))
+                .stream()
+                .findFirst();
+    }
+
+    public void start(long fromId, long toId) {
+        jdbcTemplate.update(START_SQL, fromId, toId, fromId - 1);
+    }
+
+    public void resume() {
+        jdbcTemplate.update(RESUME_SQL);
+    }
+
+    public boolean advance(long previousLastId, long lastId, int replayed) {
+        return jdbcTemplate.update(ADVANCE_SQL, lastId, replayed, previousLastId) == 1;
+    }
+
+    public void finish(String status, String error) {
+        jdbcTemplate.update(FINISH_SQL, status, error);
+    }
+}
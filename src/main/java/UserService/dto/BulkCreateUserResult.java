@@ -0,0 +1,25 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateUserResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    // Позиция элемента во входном списке
+    private int index;
+    private Status status;
+    private Long id;
+    private String email;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateUsersResponse {
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private List<BulkCreateUserResult> results;
+}
@@ -1,18 +1,24 @@
 package UserService.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserEventMessage {
     private String eventType;
     private Long userId;
     private String userName;
     private String userEmail;
     private String timestamp;
+    // Только для USER_UPDATED: изменившиеся поля (name, email, age) со старым и новым значением
+    private Map<String, UserFieldChange> changes;
 }
@@ -0,0 +1,15 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFieldChange {
+    private String oldValue;
+    private String newValue;
+}
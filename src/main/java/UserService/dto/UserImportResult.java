@@ -0,0 +1,16 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+    // Строк в файле без учета заголовка
+    private long total;
+    private long imported;
+    // Невалидные строки и строки с уже занятым email
+    private long skipped;
+}
@@ -0,0 +1,16 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserResponse> users;
+    // ID последнего пользователя на странице, null если следующей страницы нет
+    private Long nextCursor;
+}
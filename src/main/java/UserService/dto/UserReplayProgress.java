@@ -0,0 +1,27 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserReplayProgress {
+    // NONE, RUNNING, STOPPED, COMPLETED или FAILED
+    private String status;
+    // Выполняется ли повторная публикация на этом экземпляре
+    private boolean active;
+    private Long fromId;
+    private Long toId;
+    private Long lastId;
+    private long replayed;
+    private int ratePerSecond;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+}
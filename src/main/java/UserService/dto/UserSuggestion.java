@@ -0,0 +1,14 @@
+package UserService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestion {
+    private Long id;
+    private String name;
+    private String email;
+}
@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @Table(name = "users")
 public class User {
 
+    // Последовательность с пулом id (см. V2__users_id_sequence.sql): с IDENTITY Hibernate не умеет пакетную вставку
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -0,0 +1,156 @@
+package UserService.kafka;
+
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Бинарный формат Avro single-object encoding: перед данными идет отпечаток схемы,
+// по которому декодер выбирает версию схемы писателя. Схемы лежат в resources/avro
+public class AvroUserEventCodec implements UserEventCodec {
+
+    public static final String CONTENT_TYPE = "application/avro";
+
+    static final Schema SCHEMA_V1 = loadSchema("/avro/user-event-v1.avsc");
+    static final Schema SCHEMA_V2 = loadSchema("/avro/user-event-v2.avsc");
+    static final Schema SCHEMA_V3 = loadSchema("/avro/user-event-v3.avsc");
+
+    // Пишем последней версией, читаем все известные: старые поля приводятся к новой схеме
+    private static final Schema SCHEMA = SCHEMA_V3;
+    private static final Schema EVENT_TYPE_SCHEMA = SCHEMA.getField("eventType").schema();
+    private static final Schema CHANGE_SCHEMA = SCHEMA.getField("changes").schema().getTypes().get(1).getValueType();
+    private static final String UNKNOWN_EVENT_TYPE = "UNKNOWN";
+
+    // Кодировщик и декодер Avro потокобезопасны, буферы у них свои для каждого потока
+    private static final BinaryMessageEncoder<GenericRecord> ENCODER =
+            new BinaryMessageEncoder<>(GenericData.get(), SCHEMA);
+    private static final BinaryMessageDecoder<GenericRecord> DECODER = decoder();
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(UserEventMessage message) throws IOException {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("eventType", new GenericData.EnumSymbol(EVENT_TYPE_SCHEMA, eventType(message.getEventType())));
+        record.put("userId", message.getUserId());
+        record.put("userName", message.getUserName());
+        record.put("userEmail", message.getUserEmail());
+        record.put("timestamp", toEpochMillis(message.getTimestamp()));
+        record.put("changes", toChanges(message.getChanges()));
+        try {
+            ByteBuffer buffer = ENCODER.encode(record);
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            return payload;
+        } catch (AvroRuntimeException e) {
+            throw new IOException("Не удалось закодировать событие пользователя в Avro", e);
+        }
+    }
+
+    @Override
+    public UserEventMessage decode(byte[] payload) throws IOException {
+        GenericRecord record;
+        try {
+            record = DECODER.decode(payload);
+        } catch (AvroRuntimeException e) {
+            throw new IOException("Не удалось разобрать событие пользователя в Avro", e);
+        }
+        return UserEventMessage.builder()
+                .eventType(record.get("eventType").toString())
+                .userId((Long) record.get("userId"))
+                .userName(asString(record.get("userName")))
+                .userEmail(asString(record.get("userEmail")))
+                .timestamp(fromEpochMillis((Long) record.get("timestamp")))
+                .changes(fromChanges((Map<?, ?>) record.get("changes")))
+                .build();
+    }
+
+    private static BinaryMessageDecoder<GenericRecord> decoder() {
+        BinaryMessageDecoder<GenericRecord> decoder = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA);
+        decoder.addSchema(SCHEMA_V1);
+        decoder.addSchema(SCHEMA_V2);
+        return decoder;
+    }
+
+    private static Map<String, GenericRecord> toChanges(Map<String, UserFieldChange> changes) {
+        if (changes == null) {
+            return null;
+        }
+        Map<String, GenericRecord> records = new LinkedHashMap<>();
+        changes.forEach((field, change) -> {
+            GenericRecord record = new GenericData.Record(CHANGE_SCHEMA);
+            record.put("oldValue", change.getOldValue());
+            record.put("newValue", change.getNewValue());
+            records.put(field, record);
+        });
+        return records;
+    }
+
+    // Ключи и строки Avro читаются как Utf8, поэтому приводим их к String
+    private static Map<String, UserFieldChange> fromChanges(Map<?, ?> records) {
+        if (records == null) {
+            return null;
+        }
+        Map<String, UserFieldChange> changes = new LinkedHashMap<>();
+        records.forEach((field, value) -> {
+            GenericRecord record = (GenericRecord) value;
+            changes.put(field.toString(),
+                    new UserFieldChange(asString(record.get("oldValue")), asString(record.get("newValue"))));
+        });
+        return changes;
+    }
+
+    private static String eventType(String eventType) {
+        return eventType != null && EVENT_TYPE_SCHEMA.hasEnumSymbol(eventType) ? eventType : UNKNOWN_EVENT_TYPE;
+    }
+
+    // timestamp-millis: момент времени в миллисекундах от эпохи. В событии время локальное
+    // (LocalDateTime.now() в UserEventProducer), поэтому переводится через часовой пояс JVM, а при чтении
+    // возвращается в часовой пояс читателя
+    private static Long toEpochMillis(String timestamp) throws IOException {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(timestamp).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IOException("Некорректное время события: " + timestamp, e);
+        }
+    }
+
+    private static String fromEpochMillis(Long millis) {
+        return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toString();
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = AvroUserEventCodec.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Схема " + resource + " не найдена");
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось загрузить схему " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package UserService.kafka;
+
+import UserService.dto.UserEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+// Прежний формат: JSON с timestamp в виде LocalDateTime.toString()
+public class JsonUserEventCodec implements UserEventCodec {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter MESSAGE_WRITER = MAPPER.writerFor(UserEventMessage.class);
+    private static final ObjectReader MESSAGE_READER = MAPPER.readerFor(UserEventMessage.class);
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(UserEventMessage message) throws IOException {
+        return MESSAGE_WRITER.writeValueAsBytes(message);
+    }
+
+    @Override
+    public UserEventMessage decode(byte[] payload) throws IOException {
+        return MESSAGE_READER.readValue(payload);
+    }
+}
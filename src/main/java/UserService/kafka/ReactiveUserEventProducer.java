@@ -0,0 +1,61 @@
+package UserService.kafka;
+
+import UserService.dao.ReactiveUserEventOutboxDao;
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// Те же события и снимки users-state, что и у UserEventProducer, но запись в outbox идет через R2DBC
+// в транзакции вызывающего кода. Прямая отправка в Kafka из запроса потеряла бы атомарность с изменением
+// пользователя, поэтому публикация остается за UserEventOutboxRelay
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserEventProducer {
+
+    private final ReactiveUserEventOutboxDao outboxDao;
+
+    public Mono<Void> sendUserCreatedEvent(Long userId, String userName, String userEmail) {
+        return sendMessage(UserEventMessage.builder()
+                .eventType("USER_CREATED")
+                .userId(userId)
+                .userName(userName)
+                .userEmail(userEmail)
+                .timestamp(java.time.LocalDateTime.now().toString())
+                .build());
+    }
+
+    public Mono<Void> sendUserUpdatedEvent(Long userId, Map<String, UserFieldChange> changes) {
+        return sendMessage(UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(userId)
+                .changes(changes)
+                .timestamp(java.time.LocalDateTime.now().toString())
+                .build());
+    }
+
+    public Mono<Void> sendUserDeletedEvent(Long userId, String userName, String userEmail) {
+        return sendMessage(UserEventMessage.builder()
+                .eventType("USER_DELETED")
+                .userId(userId)
+                .userName(userName)
+                .userEmail(userEmail)
+                .timestamp(java.time.LocalDateTime.now().toString())
+                .build());
+    }
+
+    private Mono<Void> sendMessage(UserEventMessage message) {
+        return Mono.fromCallable(() -> List.of(
+                        UserEventProducer.toOutboxEvent(message), UserEventProducer.snapshot(message.getUserId())))
+                .flatMap(outboxDao::appendAll)
+                .doOnSuccess(ignored -> log.debug("Событие записано в outbox: {}", message));
+    }
+}
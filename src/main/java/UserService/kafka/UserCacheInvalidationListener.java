@@ -0,0 +1,107 @@
+package UserService.kafka;
+
+import UserService.config.CacheConfig;
+import UserService.config.KafkaConfig;
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import UserService.service.UserAutocompleteIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+// Приводит локальные кэш пользователей и индекс подсказок в соответствие с событиями из user-events,
+// в том числе от других реплик
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "user-service.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserCacheInvalidationListener {
+
+    private static final Set<String> HANDLED_EVENT_TYPES = Set.of("USER_CREATED", "USER_UPDATED", "USER_DELETED");
+
+    private final CacheManager cacheManager;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserEventCodecs userEventCodecs;
+
+    // Своя группа у каждого экземпляра, чтобы событие получили все реплики, а не одна из группы.
+    // Читаем только новые события: кэш только что запущенного экземпляра пуст, поэтому смещения
+    // не фиксируются (KafkaConfig.CACHE_INVALIDATION_CONTAINER_FACTORY)
+    @KafkaListener(
+            topics = UserEventProducer.TOPIC,
+            groupId = "user-service-cache-#{T(java.util.UUID).randomUUID()}",
+            containerFactory = KafkaConfig.CACHE_INVALIDATION_CONTAINER_FACTORY,
+            properties = {
+                    "auto.offset.reset=latest",
+                    "enable.auto.commit=false",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+            })
+    public void onUserEvent(ConsumerRecord<String, byte[]> record) {
+        // Тип из заголовка позволяет пропустить чужие события, не разбирая значение
+        String eventType = UserEventCodecs.eventType(record.headers());
+        if (eventType != null && !HANDLED_EVENT_TYPES.contains(eventType)) {
+            return;
+        }
+        UserEventMessage event;
+        try {
+            event = userEventCodecs.decode(record.headers(), record.value());
+        } catch (IOException e) {
+            log.warn("Не удалось разобрать событие пользователя: {}", e.getMessage());
+            return;
+        }
+        if (event.getUserId() == null || event.getEventType() == null) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case "USER_CREATED" -> index(event);
+            case "USER_UPDATED" -> {
+                evict(event);
+                applyChanges(event);
+            }
+            case "USER_DELETED" -> {
+                evict(event);
+                userAutocompleteIndex.remove(event.getUserId());
+            }
+            default -> log.debug("Неизвестный тип события пользователя: {}", event.getEventType());
+        }
+    }
+
+    private void index(UserEventMessage event) {
+        if (event.getUserName() != null && event.getUserEmail() != null) {
+            userAutocompleteIndex.put(event.getUserId(), event.getUserName(), event.getUserEmail());
+        }
+    }
+
+    private void applyChanges(UserEventMessage event) {
+        Map<String, UserFieldChange> changes = event.getChanges();
+        if (changes == null) {
+            // Событие старого формата с полным состоянием пользователя
+            index(event);
+            return;
+        }
+        UserFieldChange name = changes.get("name");
+        UserFieldChange email = changes.get("email");
+        if (name != null || email != null) {
+            userAutocompleteIndex.update(event.getUserId(),
+                    name == null ? null : name.getNewValue(),
+                    email == null ? null : email.getNewValue());
+        }
+    }
+
+    private void evict(UserEventMessage event) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (cache != null) {
+            cache.evict(event.getUserId());
+            log.debug("Пользователь {} удален из кэша по событию {}", event.getUserId(), event.getEventType());
+        }
+    }
+}
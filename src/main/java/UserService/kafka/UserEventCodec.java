@@ -0,0 +1,15 @@
+package UserService.kafka;
+
+import UserService.dto.UserEventMessage;
+
+import java.io.IOException;
+
+// Формат значения сообщения в user-events. Выбранный формат передается в заголовке contentType
+public interface UserEventCodec {
+
+    String contentType();
+
+    byte[] encode(UserEventMessage message) throws IOException;
+
+    UserEventMessage decode(byte[] payload) throws IOException;
+}
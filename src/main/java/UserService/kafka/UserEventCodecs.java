@@ -0,0 +1,68 @@
+package UserService.kafka;
+
+import UserService.dto.UserEventMessage;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Публикуем в формате из user-service.events.format, а читаем оба: формат сообщения указан в заголовке,
+// поэтому смена формата не требует одновременного обновления всех потребителей.
+// Тип события дублируется в заголовке, чтобы потребители могли отбрасывать лишнее, не разбирая значение
+@Component
+public class UserEventCodecs {
+
+    public static final String EVENT_TYPE_HEADER = "eventType";
+    public static final String CONTENT_TYPE_HEADER = "contentType";
+
+    private final UserEventCodec json = new JsonUserEventCodec();
+    private final UserEventCodec avro = new AvroUserEventCodec();
+    private final UserEventCodec writer;
+
+    public UserEventCodecs(@Value("${user-service.events.format:json}") String format) {
+        this.writer = switch (format.toLowerCase(Locale.ROOT)) {
+            case "json" -> json;
+            case "avro" -> avro;
+            default -> throw new IllegalArgumentException("Неизвестный формат событий пользователя: " + format);
+        };
+    }
+
+    public UserEventCodec writer() {
+        return writer;
+    }
+
+    public ProducerRecord<String, byte[]> toRecord(String topic, String key, UserEventMessage message) throws IOException {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, writer.encode(message));
+        if (message.getEventType() != null) {
+            record.headers().add(EVENT_TYPE_HEADER, message.getEventType().getBytes(StandardCharsets.UTF_8));
+        }
+        record.headers().add(CONTENT_TYPE_HEADER, writer.contentType().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    public static String eventType(Headers headers) {
+        return header(headers, EVENT_TYPE_HEADER);
+    }
+
+    // Сообщения без заголовка опубликованы до появления бинарного формата и всегда в JSON
+    public UserEventMessage decode(Headers headers, byte[] payload) throws IOException {
+        String contentType = header(headers, CONTENT_TYPE_HEADER);
+        if (contentType == null || JsonUserEventCodec.CONTENT_TYPE.equals(contentType)) {
+            return json.decode(payload);
+        }
+        if (AvroUserEventCodec.CONTENT_TYPE.equals(contentType)) {
+            return avro.decode(payload);
+        }
+        throw new IOException("Неизвестный формат события пользователя: " + contentType);
+    }
+
+    private static String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+package UserService.kafka;
+
+import UserService.dao.UserEventOutboxDao;
+import UserService.dao.UserEventOutboxDao.OutboxEvent;
+import UserService.dao.UserEventOutboxDao.OutboxStats;
+import UserService.dto.UserEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Публикует события из outbox в user-events и снимки в users-state. Relay можно запускать на всех репликах:
+// очередь в каждый момент разбирает одна из них (UserEventOutboxDao.withRelayLock), поэтому события одного
+// пользователя уходят в порядке id. Порция читается и удаляется короткими запросами вне транзакции, а подтверждения
+// Kafka ожидаются без блокировок в базе. Доставка "хотя бы один раз": при сбое после отправки событие уйдет повторно.
+// Пока брокер недоступен, события копятся в outbox, а relay повторяет попытки с растущей паузой
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "user-service.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserEventOutboxRelay {
+
+    private static final ObjectReader MESSAGE_READER = new ObjectMapper().readerFor(UserEventMessage.class);
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final UserEventOutboxDao outboxDao;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final UserEventCodecs userEventCodecs;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter relayedEvents;
+    private final Counter failedSends;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    // Меняются только из потока планировщика
+    private Duration backoff = Duration.ZERO;
+    private long nextAttemptAt;
+
+    public UserEventOutboxRelay(UserEventOutboxDao outboxDao,
+                                KafkaTemplate<String, byte[]> kafkaTemplate,
+                                UserEventCodecs userEventCodecs,
+                                @Value("${user-service.outbox.relay.batch-size:500}") int batchSize,
+                                @Value("${user-service.outbox.relay.send-timeout:20s}") Duration sendTimeout,
+                                MeterRegistry meterRegistry) {
+        this.outboxDao = outboxDao;
+        this.kafkaTemplate = kafkaTemplate;
+        this.userEventCodecs = userEventCodecs;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+
+        this.meterRegistry = meterRegistry;
+        this.relayedEvents = Counter.builder("user.events.outbox.relayed")
+                .description("События, опубликованные из outbox в Kafka")
+                .register(meterRegistry);
+        this.failedSends = Counter.builder("user.events.outbox.send.failures")
+                .description("Неудачные попытки публикации порции из outbox")
+                .register(meterRegistry);
+        Gauge.builder("user.events.outbox.depth", depth, AtomicLong::get)
+                .description("Оценка количества неопубликованных событий в outbox")
+                .register(meterRegistry);
+        Gauge.builder("user.events.outbox.oldest.age", oldestAgeMillis, age -> age.get() / 1000.0)
+                .description("Возраст самого старого неопубликованного события")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.outbox.relay.poll-interval:200ms}")
+    public void relay() {
+        if (System.currentTimeMillis() >= nextAttemptAt) {
+            try {
+                // Полная порция означает, что в очереди, скорее всего, есть еще события
+                int relayed;
+                do {
+                    relayed = relayBatch();
+                } while (relayed == batchSize);
+            } catch (Exception e) {
+                log.warn("Ошибка публикации событий из outbox: {}", e.getMessage());
+                onFailure();
+            }
+        }
+        refreshStats();
+    }
+
+    // 0, если очередь пуста или ее разбирает другая реплика
+    public int relayBatch() {
+        return outboxDao.withRelayLock(this::publishBatch).orElse(0);
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> events = outboxDao.nextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        // Отправляем всю порцию сразу, продюсер сам объединит записи в пакеты
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ProducerRecord<String, byte[]> record = toRecord(event);
+            // Нечитаемое событие не должно навсегда остановить очередь: оно удаляется вместе с порцией
+            if (record == null) {
+                futures.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+            try {
+                futures.add(send(record));
+            } catch (Exception e) {
+                // Буфер продюсера не освободился за max.block.ms: остаток порции не отправляем
+                futures.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+
+        // Удаляем только непрерывный отправленный префикс, чтобы сохранить порядок при повторе
+        List<Long> sent = new ArrayList<>(events.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Событие {} из outbox не отправлено, повторим позже: {}", events.get(i).id(), e.getMessage());
+                break;
+            }
+            sent.add(events.get(i).id());
+        }
+        outboxDao.delete(sent);
+        relayedEvents.increment(sent.size());
+        log.debug("Опубликовано событий из outbox: {} из {}", sent.size(), events.size());
+        if (sent.size() < events.size()) {
+            onFailure();
+        } else {
+            backoff = Duration.ZERO;
+        }
+        return sent.size();
+    }
+
+    // Время от передачи записи продюсеру до подтверждения брокером, включая ожидание в буфере продюсера (linger.ms)
+    private CompletableFuture<SendResult<String, byte[]>> send(ProducerRecord<String, byte[]> record) {
+        long started = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future = kafkaTemplate.send(record);
+        future.whenComplete((result, error) -> Timer.builder("user.kafka.send")
+                .description("Задержка подтверждения отправки в Kafka")
+                .tag("topic", record.topic())
+                .tag("result", error == null ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        return future;
+    }
+
+    private void onFailure() {
+        failedSends.increment();
+        backoff = backoff.isZero() ? MIN_BACKOFF : min(backoff.multipliedBy(2), MAX_BACKOFF);
+        nextAttemptAt = System.currentTimeMillis() + backoff.toMillis();
+    }
+
+    private void refreshStats() {
+        try {
+            OutboxStats stats = outboxDao.stats();
+            depth.set(stats.depth());
+            oldestAgeMillis.set(Math.max(0, stats.oldestAgeMillis()));
+        } catch (Exception e) {
+            log.debug("Не удалось обновить статистику outbox: {}", e.getMessage());
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    // В outbox события лежат в JSON, в топик уходят в формате из user-service.events.format.
+    // Снимки users-state публикуются как есть, а снимок удаленного пользователя - как tombstone без значения
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        if (UserEventProducer.STATE_TOPIC.equals(event.topic())) {
+            byte[] value = event.payload() == null ? null : event.payload().getBytes(StandardCharsets.UTF_8);
+            return new ProducerRecord<>(event.topic(), event.key(), value);
+        }
+        if (event.payload() == null) {
+            log.error("Событие {} в outbox без содержимого пропущено", event.id());
+            return null;
+        }
+        try {
+            UserEventMessage message = MESSAGE_READER.readValue(event.payload());
+            return userEventCodecs.toRecord(event.topic(), event.key(), message);
+        } catch (IOException e) {
+            log.error("Некорректное событие {} в outbox пропущено: {}", event.id(), event.payload(), e);
+            return null;
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package UserService.kafka;
 
+import UserService.dao.UserEventOutboxDao;
+import UserService.dao.UserEventOutboxDao.OutboxEvent;
 import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import UserService.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// События не отправляются в Kafka напрямую, а пишутся в outbox в транзакции вызывающего кода.
+// В топик их публикует UserEventOutboxRelay после фиксации. Вместе с каждым событием в outbox пишется
+// снимок для compacted-топика users-state: последнее состояние пользователя по id, tombstone после удаления
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
 public class UserEventProducer {
 
-    private final KafkaTemplate<String, UserEventMessage> kafkaTemplate;
+    static final String TOPIC = "user-events";
+    public static final String STATE_TOPIC = "users-state";
+
+    private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(UserEventMessage.class);
 
-    private static final String TOPIC = "user-events";
+    private final UserEventOutboxDao outboxDao;
 
     public void sendUserCreatedEvent(Long userId, String userName, String userEmail) {
         UserEventMessage message = UserEventMessage.builder()
@@ -25,7 +44,63 @@ public class UserEventProducer {
                 .build();
 
         sendMessage(message);
-        log.info("Отправлено событие создания пользователя: {}", message);
+        log.info("Событие создания пользователя записано в outbox: {}", message);
+    }
+
+    public void sendUserCreatedEvents(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        String timestamp = java.time.LocalDateTime.now().toString();
+        List<OutboxEvent> events = new ArrayList<>(users.size() * 2);
+        for (User user : users) {
+            events.add(toOutboxEvent(UserEventMessage.builder()
+                    .eventType("USER_CREATED")
+                    .userId(user.getId())
+                    .userName(user.getName())
+                    .userEmail(user.getEmail())
+                    .timestamp(timestamp)
+                    .build()));
+        }
+        for (User user : users) {
+            events.add(snapshot(user.getId()));
+        }
+        // Одна пакетная вставка в outbox на порцию вместо запроса на каждого пользователя
+        outboxDao.appendAll(events);
+        log.info("События создания пользователей записаны в outbox: {}", users.size());
+    }
+
+    // Полное текущее состояние пользователя при повторной публикации. Отдельный тип, чтобы потребители
+    // USER_CREATED (например, приветственные письма) не срабатывали повторно. Снимки users-state не пишутся:
+    // для них есть отдельное заполнение
+    public void sendUserSnapshotEvents(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        String timestamp = java.time.LocalDateTime.now().toString();
+        outboxDao.appendAll(users.stream()
+                .map(user -> toOutboxEvent(UserEventMessage.builder()
+                        .eventType("USER_SNAPSHOT")
+                        .userId(user.getId())
+                        .userName(user.getName())
+                        .userEmail(user.getEmail())
+                        .timestamp(timestamp)
+                        .build()))
+                .toList());
+        log.debug("События повторной публикации записаны в outbox: {}", users.size());
+    }
+
+    // Передаются только изменившиеся поля: потребители применяют изменение, не перечитывая пользователя
+    public void sendUserUpdatedEvent(Long userId, Map<String, UserFieldChange> changes) {
+        UserEventMessage message = UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(userId)
+                .changes(changes)
+                .timestamp(java.time.LocalDateTime.now().toString())
+                .build();
+
+        sendMessage(message);
+        log.info("Событие обновления пользователя записано в outbox: {}", message);
     }
 
     public void sendUserDeletedEvent(Long userId, String userName, String userEmail) {
@@ -38,17 +113,26 @@ public class UserEventProducer {
                 .build();
 
         sendMessage(message);
-        log.info("Отправлено событие удаления пользователя: {}", message);
+        log.info("Событие удаления пользователя записано в outbox: {}", message);
     }
 
     private void sendMessage(UserEventMessage message) {
-        kafkaTemplate.send(TOPIC, message.getUserEmail(), message)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.debug("Сообщение успешно отправлено в топик {}: {}", TOPIC, message);
-                    } else {
-                        log.error("Ошибка отправки сообщения в Kafka: {}", ex.getMessage());
-                    }
-                });
+        outboxDao.appendAll(List.of(toOutboxEvent(message), snapshot(message.getUserId())));
+    }
+
+    // Значение снимка relay читает из users при публикации, поэтому здесь пишется только ключ
+    static OutboxEvent snapshot(Long userId) {
+        return new OutboxEvent(null, STATE_TOPIC, String.valueOf(userId), null);
+    }
+
+    // Ключ - id пользователя: email может измениться, а все события одного пользователя
+    // должны попадать в одну партицию, чтобы сохранялся их порядок
+    static OutboxEvent toOutboxEvent(UserEventMessage message) {
+        try {
+            return new OutboxEvent(null, TOPIC, String.valueOf(message.getUserId()),
+                    MESSAGE_WRITER.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие пользователя", e);
+        }
     }
 }
@@ -0,0 +1,52 @@
+package UserService.kafka;
+
+import UserService.dao.UserEventOutboxDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Разовое заполнение users-state для пользователей, созданных до появления топика.
+// Запуск: --user-service.users-state.backfill=true. Снимки пишутся в outbox порциями по id и уходят
+// в Kafka через relay; повторный запуск безопасен, compaction оставит последнее состояние
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "user-service.users-state", name = "backfill", havingValue = "true")
+public class UserStateBackfillRunner implements ApplicationRunner {
+
+    private final UserEventOutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public UserStateBackfillRunner(UserEventOutboxDao outboxDao,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${user-service.users-state.backfill-chunk-size:10000}") int chunkSize) {
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Заполнение {}: начато", UserEventProducer.STATE_TOPIC);
+        long afterId = 0;
+        long chunks = 0;
+        // Каждая порция в своей транзакции: relay начинает публиковать, не дожидаясь конца заполнения
+        while (true) {
+            long from = afterId;
+            Long lastId = transactionTemplate.execute(status ->
+                    outboxDao.appendSnapshots(UserEventProducer.STATE_TOPIC, from, chunkSize));
+            if (lastId == null) {
+                break;
+            }
+            afterId = lastId;
+            chunks++;
+            log.debug("Заполнение {}: порция {}, последний id {}", UserEventProducer.STATE_TOPIC, chunks, lastId);
+        }
+        log.info("Заполнение {}: завершено, порций {}", UserEventProducer.STATE_TOPIC, chunks);
+    }
+}
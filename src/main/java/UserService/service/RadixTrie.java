@@ -0,0 +1,236 @@
+package UserService.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Сжатое префиксное дерево: цепочки узлов с одним потомком хранятся одним ребром с меткой из нескольких символов.
+// Значения - id пользователей, у одного ключа их может быть несколько. Класс не потокобезопасен
+public class RadixTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    // Оценка для 64-битной JVM со сжатыми указателями: заголовок объекта и три ссылки, заголовок массива
+    private static final long NODE_BYTES = 32;
+    private static final long ARRAY_BYTES = 16;
+
+    private final Node root = new Node(new char[0]);
+    private long nodes;
+    private long labelChars;
+    private long childSlots;
+    private long idSlots;
+
+    public void put(String key, long id) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = newNode(key.substring(i).toCharArray());
+                addId(leaf, id);
+                insertChild(node, -index - 1, leaf);
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // Ключ расходится с меткой посередине: выносим общую часть в промежуточный узел
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                node.children[index] = middle;
+                nodes++;
+                childSlots++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        addId(node, id);
+    }
+
+    public void remove(String key, long id) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (commonPrefix(child.label, key, i) < child.label.length) {
+                return;
+            }
+            path.push(node);
+            node = child;
+            i += child.label.length;
+        }
+        if (!removeId(node, id) || node == root) {
+            return;
+        }
+        compact(node, path.peek());
+        // Удаление листа могло оставить у родителя единственного потомка без своих значений
+        Node parent = path.pop();
+        if (parent != root && !path.isEmpty()) {
+            compact(parent, path.peek());
+        }
+    }
+
+    // id по ключам с заданным префиксом в лексикографическом порядке ключей, не больше limit
+    public Set<Long> findByPrefix(String prefix, int limit) {
+        Set<Long> result = new LinkedHashSet<>();
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(i));
+            if (index < 0) {
+                return result;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (common < child.label.length && i + common < prefix.length()) {
+                return result;
+            }
+            node = child;
+            i += common;
+        }
+        collect(node, result, limit);
+        return result;
+    }
+
+    public long estimatedBytes() {
+        return nodes * NODE_BYTES
+                + nodes * 3 * ARRAY_BYTES
+                + labelChars * Character.BYTES
+                + childSlots * 4
+                + idSlots * Long.BYTES;
+    }
+
+    private void collect(Node node, Set<Long> result, int limit) {
+        for (long id : node.ids) {
+            if (result.size() >= limit) {
+                return;
+            }
+            result.add(id);
+        }
+        for (Node child : node.children) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    // Удаляет узел без значений и потомков, а узел с единственным потомком склеивает с ним
+    private void compact(Node node, Node parent) {
+        if (node.ids.length > 0) {
+            return;
+        }
+        if (node.children.length == 0) {
+            removeChild(parent, node);
+            nodes--;
+            labelChars -= node.label.length;
+        } else if (node.children.length == 1) {
+            Node child = node.children[0];
+            char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+            System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+            node.label = label;
+            node.children = child.children;
+            node.ids = child.ids;
+            nodes--;
+            childSlots--;
+        }
+    }
+
+    private Node newNode(char[] label) {
+        nodes++;
+        labelChars += label.length;
+        return new Node(label);
+    }
+
+    private void addId(Node node, long id) {
+        int index = Arrays.binarySearch(node.ids, id);
+        if (index >= 0) {
+            return;
+        }
+        int position = -index - 1;
+        long[] ids = new long[node.ids.length + 1];
+        System.arraycopy(node.ids, 0, ids, 0, position);
+        ids[position] = id;
+        System.arraycopy(node.ids, position, ids, position + 1, node.ids.length - position);
+        node.ids = ids;
+        idSlots++;
+    }
+
+    private boolean removeId(Node node, long id) {
+        int index = Arrays.binarySearch(node.ids, id);
+        if (index < 0) {
+            return false;
+        }
+        long[] ids = node.ids.length == 1 ? NO_IDS : new long[node.ids.length - 1];
+        System.arraycopy(node.ids, 0, ids, 0, index);
+        System.arraycopy(node.ids, index + 1, ids, index, node.ids.length - index - 1);
+        node.ids = ids;
+        idSlots--;
+        return true;
+    }
+
+    private void insertChild(Node node, int position, Node child) {
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, position);
+        children[position] = child;
+        System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+        node.children = children;
+        childSlots++;
+    }
+
+    private void removeChild(Node node, Node child) {
+        int position = childIndex(node, child.label[0]);
+        Node[] children = node.children.length == 1 ? NO_CHILDREN : new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, position);
+        System.arraycopy(node.children, position + 1, children, position, node.children.length - position - 1);
+        node.children = children;
+        childSlots--;
+    }
+
+    // Потомки упорядочены по первому символу метки, первые символы у них различны
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = node.children[mid].label[0];
+            if (c < first) {
+                low = mid + 1;
+            } else if (c > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private long[] ids = NO_IDS;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package UserService.service;
+
+import UserService.config.CacheConfig;
+import UserService.dao.ReactiveUserDao;
+import UserService.dto.CreateUserRequest;
+import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserFieldChange;
+import UserService.dto.UserPage;
+import UserService.dto.UserResponse;
+import UserService.entity.User;
+import UserService.kafka.ReactiveUserEventProducer;
+import UserService.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Операции UserService для профиля reactive: R2DBC вместо JPA, без блокирующих вызовов в потоках event loop.
+// Кэш, счетчик и индекс подсказок общие со servlet-стеком и обновляются после коммита: TransactionalOperator
+// выдает значение дальше только после фиксации транзакции
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private final ReactiveUserDao userDao;
+    private final UserMapper userMapper;
+    private final ReactiveUserEventProducer userEventProducer;
+    private final TransactionalOperator transactionalOperator;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserCounter userCounter;
+    private final Cache usersCache;
+
+    public ReactiveUserService(ReactiveUserDao userDao,
+                               UserMapper userMapper,
+                               ReactiveUserEventProducer userEventProducer,
+                               TransactionalOperator transactionalOperator,
+                               UserAutocompleteIndex userAutocompleteIndex,
+                               UserCounter userCounter,
+                               CacheManager cacheManager) {
+        this.userDao = userDao;
+        this.userMapper = userMapper;
+        this.userEventProducer = userEventProducer;
+        this.transactionalOperator = transactionalOperator;
+        this.userAutocompleteIndex = userAutocompleteIndex;
+        this.userCounter = userCounter;
+        this.usersCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_CACHE));
+    }
+
+    public Mono<UserResponse> createUser(CreateUserRequest request) {
+        return userDao.insert(request.getName(), request.getEmail(), request.getAge())
+                // Событие пишется в outbox в той же транзакции и публикуется в Kafka после коммита
+                .flatMap(user -> userEventProducer.sendUserCreatedEvent(user.getId(), user.getName(), user.getEmail())
+                        .thenReturn(user))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, "Такой емайл уже есть"))
+                .doOnNext(user -> {
+                    log.info("Пользователь сохранен: {}", user.getEmail());
+                    userCounter.add(1);
+                    userAutocompleteIndex.put(user.getId(), user.getName(), user.getEmail());
+                })
+                .map(userMapper::toResponse);
+    }
+
+    public Mono<UserResponse> getUserById(Long id) {
+        if (id == null || id <= 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный ID"));
+        }
+        UserResponse cached = usersCache.get(id, UserResponse.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userDao.findById(id)
+                .map(userMapper::toResponse)
+                .doOnNext(user -> usersCache.put(id, user))
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<UserPage> getUsersPage(Long after, Integer limit) {
+        int pageSize = UserService.resolvePageSize(limit);
+        long cursor = after == null ? 0L : after;
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        return userDao.findPage(cursor, pageSize + 1)
+                .collectList()
+                .map(users -> toPage(users, pageSize));
+    }
+
+    public Mono<UserPage> searchUsersByName(String name, Long after, Integer limit) {
+        int pageSize = UserService.resolvePageSize(limit);
+        if (name == null || name.isBlank()) {
+            return Mono.just(new UserPage(List.of(), null));
+        }
+        long cursor = after == null ? 0L : after;
+        return userDao.searchByNameContaining(UserService.containsPattern(name.strip()), cursor, pageSize + 1)
+                .collectList()
+                .map(users -> toPage(users, pageSize));
+    }
+
+    public Mono<UserResponse> updateUser(Long id, UpdateUserRequest request) {
+        return userDao.lockById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(user -> applyUpdate(user, request))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, "Новый email уже занят"))
+                .map(user -> {
+                    log.info("Пользователь обновлен: {}", user.getEmail());
+                    UserResponse response = userMapper.toResponse(user);
+                    usersCache.put(id, response);
+                    userAutocompleteIndex.put(user.getId(), user.getName(), user.getEmail());
+                    return response;
+                });
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userDao.deleteById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(user -> userEventProducer.sendUserDeletedEvent(user.getId(), user.getName(), user.getEmail())
+                        .thenReturn(user))
+                .as(transactionalOperator::transactional)
+                .doOnNext(user -> {
+                    log.info("Пользователь удален: {}", id);
+                    usersCache.evict(id);
+                    userCounter.add(-1);
+                    userAutocompleteIndex.remove(id);
+                })
+                .then();
+    }
+
+    // Точное значение - из счетчика в памяти. В базу он обращается только при первом чтении,
+    // поэтому вызов вынесен из event loop
+    public Mono<Long> getUserCount(boolean approximate) {
+        Mono<Long> exact = Mono.fromCallable(userCounter::get).subscribeOn(Schedulers.boundedElastic());
+        if (!approximate) {
+            return exact;
+        }
+        return userDao.estimateCount()
+                .filter(estimate -> estimate >= 0)
+                .switchIfEmpty(exact);
+    }
+
+    private Mono<User> applyUpdate(User user, UpdateUserRequest request) {
+        Map<String, UserFieldChange> changes = new LinkedHashMap<>();
+
+        if (request.getName() != null && !request.getName().equals(user.getName())) {
+            changes.put("name", change(user.getName(), request.getName()));
+            user.setName(request.getName());
+        }
+        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
+            changes.put("email", change(user.getEmail(), request.getEmail()));
+            user.setEmail(request.getEmail());
+        }
+        if (request.getAge() != null && !request.getAge().equals(user.getAge())) {
+            changes.put("age", change(user.getAge(), request.getAge()));
+            user.setAge(request.getAge());
+        }
+        // Если ничего не изменилось, писать в базу и отправлять событие незачем
+        if (changes.isEmpty()) {
+            return Mono.just(user);
+        }
+        // Занятый email отклоняет уникальный индекс (DuplicateKeyException -> 409 в updateUser), без отдельного запроса
+        return userDao.update(user)
+                .then(userEventProducer.sendUserUpdatedEvent(user.getId(), changes))
+                .thenReturn(user);
+    }
+
+    private UserPage toPage(List<User> users, int pageSize) {
+        boolean hasNext = users.size() > pageSize;
+        List<User> pageUsers = hasNext ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasNext ? pageUsers.get(pageSize - 1).getId() : null;
+        return new UserPage(pageUsers.stream().map(userMapper::toResponse).toList(), nextCursor);
+    }
+
+    private static ResponseStatusException notFound(Long id) {
+        log.warn("Пользователь с ID {} не найден", id);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь не найден");
+    }
+
+    private static UserFieldChange change(Object oldValue, Object newValue) {
+        return new UserFieldChange(Objects.toString(oldValue, null), Objects.toString(newValue, null));
+    }
+}
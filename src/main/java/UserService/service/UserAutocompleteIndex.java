@@ -0,0 +1,244 @@
+package UserService.service;
+
+import UserService.dao.UserDao;
+import UserService.dto.UserSuggestion;
+import UserService.entity.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Префиксный индекс имен и email в памяти для подсказок при вводе: запрос обслуживается без обращения к базе
+@Slf4j
+@Component
+public class UserAutocompleteIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    // Оценка памяти на запись без учета символов: Long, узел HashMap, UserSuggestion и два String
+    private static final long ENTRY_BYTES = 16 + 32 + 24 + 2 * 40;
+
+    private final UserDao userDao;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RadixTrie trie = new RadixTrie();
+    private final Map<Long, UserSuggestion> entries = new HashMap<>();
+    private long entryChars;
+    // id, удаленные во время первичной загрузки: курсор мог прочитать строку до удаления
+    private Set<Long> removedDuringBuild;
+
+    public UserAutocompleteIndex(UserDao userDao,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.userDao = userDao;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("user.autocomplete.index.size", this, UserAutocompleteIndex::estimatedBytes)
+                .description("Оценка памяти, занятой индексом подсказок")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.autocomplete.index.entries", this, UserAutocompleteIndex::size)
+                .description("Количество пользователей в индексе подсказок")
+                .register(meterRegistry);
+    }
+
+    // Потоковая загрузка всех пользователей при старте. Изменения, пришедшие во время загрузки, не перезаписываются
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long loaded = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<User> users = userDao.streamAllOrderedById()) {
+                    for (User user : (Iterable<User>) users::iterator) {
+                        putIfAbsent(user.getId(), user.getName(), user.getEmail());
+                        entityManager.detach(user);
+                        count++;
+                    }
+                }
+                return count;
+            });
+            log.info("Индекс подсказок построен: пользователей {}, оценка памяти {} байт", loaded, estimatedBytes());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                removedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<UserSuggestion> suggest(String prefix, Integer limit) {
+        int size = resolveLimit(limit);
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            List<UserSuggestion> suggestions = new ArrayList<>(size);
+            for (Long id : trie.findByPrefix(key, size)) {
+                suggestions.add(entries.get(id));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Long id, String name, String email) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+            addEntry(new UserSuggestion(id, name, email));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Событие обновления несет только изменившиеся поля, недостающие берутся из текущей записи
+    public void update(Long id, String name, String email) {
+        lock.writeLock().lock();
+        try {
+            UserSuggestion current = entries.get(id);
+            String newName = name != null ? name : current == null ? null : current.getName();
+            String newEmail = email != null ? email : current == null ? null : current.getEmail();
+            if (newName == null || newEmail == null) {
+                return;
+            }
+            removeEntry(id);
+            addEntry(new UserSuggestion(id, newName, newEmail));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(List<User> users) {
+        lock.writeLock().lock();
+        try {
+            for (User user : users) {
+                removeEntry(user.getId());
+                addEntry(new UserSuggestion(user.getId(), user.getName(), user.getEmail()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+            if (removedDuringBuild != null) {
+                removedDuringBuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return trie.estimatedBytes() + entries.size() * ENTRY_BYTES + entryChars * Character.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putIfAbsent(Long id, String name, String email) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(id) && !removedDuringBuild.contains(id)) {
+                addEntry(new UserSuggestion(id, name, email));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addEntry(UserSuggestion entry) {
+        entries.put(entry.getId(), entry);
+        entryChars += entry.getName().length() + entry.getEmail().length();
+        for (String key : keys(entry)) {
+            trie.put(key, entry.getId());
+        }
+    }
+
+    private void removeEntry(Long id) {
+        UserSuggestion entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        entryChars -= entry.getName().length() + entry.getEmail().length();
+        for (String key : keys(entry)) {
+            trie.remove(key, id);
+        }
+    }
+
+    // Имя целиком, каждое следующее слово имени и email: "Иван Петров" находится и по "ив", и по "пет"
+    private static Set<String> keys(UserSuggestion entry) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(entry.getName());
+        keys.add(name);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            if (i + 1 < name.length() && name.charAt(i + 1) != ' ') {
+                keys.add(name.substring(i + 1));
+            }
+        }
+        keys.add(normalize(entry.getEmail()));
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Некорректное количество подсказок");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
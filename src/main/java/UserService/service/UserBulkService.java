@@ -0,0 +1,185 @@
+package UserService.service;
+
+import UserService.dao.UserDao;
+import UserService.dto.BulkCreateUserResult;
+import UserService.dto.BulkCreateUserResult.Status;
+import UserService.dto.BulkCreateUsersResponse;
+import UserService.dto.CreateUserRequest;
+import UserService.entity.User;
+import UserService.kafka.UserEventProducer;
+import UserService.mapper.UserMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserBulkService {
+
+    public static final int MAX_BULK_SIZE = 50_000;
+    // Каждая порция вставляется в своей транзакции, поэтому ошибка в одной порции не откатывает остальные
+    private static final int CHUNK_SIZE = 1_000;
+
+    private final UserDao userDao;
+    private final UserMapper userMapper;
+    private final UserEventProducer userEventProducer;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserCounter userCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    public BulkCreateUsersResponse createUsers(List<CreateUserRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Список пользователей пуст");
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "За один запрос можно создать не больше " + MAX_BULK_SIZE + " пользователей");
+        }
+
+        BulkCreateUserResult[] results = new BulkCreateUserResult[requests.size()];
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < requests.size(); from += CHUNK_SIZE) {
+            createChunk(requests, from, Math.min(from + CHUNK_SIZE, requests.size()), seenEmails, results);
+        }
+
+        BulkCreateUsersResponse response = summarize(Arrays.asList(results));
+        log.info("Массовое создание пользователей: создано {}, дубликатов {}, невалидных {}, ошибок {}",
+                response.getCreated(), response.getDuplicates(), response.getInvalid(), response.getFailed());
+        return response;
+    }
+
+    private void createChunk(List<CreateUserRequest> requests, int from, int to,
+                             Set<String> seenEmails, BulkCreateUserResult[] results) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            CreateUserRequest request = requests.get(i);
+            String violations = validate(request);
+            if (violations != null) {
+                results[i] = result(i, Status.INVALID, null, request == null ? null : request.getEmail(), violations);
+            } else if (!seenEmails.add(request.getEmail())) {
+                results[i] = result(i, Status.DUPLICATE, null, request.getEmail(), "Email повторяется в запросе");
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Одним запросом отсеиваем уже занятые email, чтобы конфликт не ронял весь пакет
+        Set<String> existingEmails = userDao.findExistingEmails(
+                candidates.stream().map(i -> requests.get(i).getEmail()).toList());
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer i : candidates) {
+            String email = requests.get(i).getEmail();
+            if (existingEmails.contains(email)) {
+                results[i] = result(i, Status.DUPLICATE, null, email, "Такой емайл уже есть");
+            } else {
+                toInsert.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        List<User> created = new ArrayList<>();
+        try {
+            List<User> saved = transactionTemplate.execute(status -> insertBatch(requests, toInsert));
+            for (int k = 0; k < toInsert.size(); k++) {
+                User user = saved.get(k);
+                results[toInsert.get(k)] = result(toInsert.get(k), Status.CREATED, user.getId(), user.getEmail(), null);
+                created.add(user);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Email мог занять параллельный запрос между проверкой и вставкой: уточняем результат по одному
+            log.warn("Пакетная вставка не удалась, вставляем пользователей по одному: {}", e.getMessage());
+            for (Integer i : toInsert) {
+                User user = insertOne(requests.get(i), i, results);
+                if (user != null) {
+                    created.add(user);
+                }
+            }
+        }
+
+        userCounter.add(created.size());
+        userAutocompleteIndex.putAll(created);
+    }
+
+    private List<User> insertBatch(List<CreateUserRequest> requests, List<Integer> indexes) {
+        List<User> users = indexes.stream()
+                .map(i -> userMapper.toEntity(requests.get(i)))
+                .toList();
+        List<User> saved = userDao.saveAll(users);
+        userDao.flush();
+        // События пишутся в outbox в транзакции порции
+        userEventProducer.sendUserCreatedEvents(saved);
+        return saved;
+    }
+
+    private User insertOne(CreateUserRequest request, int index, BulkCreateUserResult[] results) {
+        try {
+            User user = transactionTemplate.execute(status -> {
+                User saved = userDao.saveAndFlush(userMapper.toEntity(request));
+                userEventProducer.sendUserCreatedEvent(saved.getId(), saved.getName(), saved.getEmail());
+                return saved;
+            });
+            results[index] = result(index, Status.CREATED, user.getId(), user.getEmail(), null);
+            return user;
+        } catch (DataIntegrityViolationException e) {
+            results[index] = result(index, Status.DUPLICATE, null, request.getEmail(), "Такой емайл уже есть");
+        } catch (Exception e) {
+            log.error("Ошибка при сохранении пользователя {}", request.getEmail(), e);
+            results[index] = result(index, Status.FAILED, null, request.getEmail(), "Не удалось сохранить пользователя");
+        }
+        return null;
+    }
+
+    private String validate(CreateUserRequest request) {
+        if (request == null) {
+            return "Пустой элемент списка";
+        }
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private BulkCreateUserResult result(int index, Status status, Long id, String email, String message) {
+        return new BulkCreateUserResult(index, status, id, email, message);
+    }
+
+    private BulkCreateUsersResponse summarize(List<BulkCreateUserResult> results) {
+        int created = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        int failed = 0;
+        for (BulkCreateUserResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BulkCreateUsersResponse(created, duplicates, invalid, failed, results);
+    }
+}
@@ -0,0 +1,65 @@
+package UserService.service;
+
+import UserService.dao.UserDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Количество пользователей в памяти: меняется после фиксации создания и удаления и периодически сверяется
+// с базой. Изменения в обход сервиса и на других репликах видны после ближайшей сверки
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCounter {
+
+    private final UserDao userDao;
+
+    private final AtomicLong count = new AtomicLong();
+    // Сумма всех изменений счетчика: по ней учитываются изменения, пришедшие во время сверки
+    private long changes;
+    private volatile boolean initialized;
+
+    public long get() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconcile();
+                }
+            }
+        }
+        return count.get();
+    }
+
+    public synchronized void add(long delta) {
+        changes += delta;
+        count.addAndGet(delta);
+    }
+
+    @Scheduled(initialDelayString = "${user-service.count.reconcile-interval:5m}",
+            fixedDelayString = "${user-service.count.reconcile-interval:5m}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Не удалось сверить количество пользователей с базой: {}", e.getMessage());
+        }
+    }
+
+    public void reconcile() {
+        long changesBefore;
+        synchronized (this) {
+            changesBefore = changes;
+        }
+        long actual = userDao.count();
+        synchronized (this) {
+            long previous = count.getAndSet(actual + changes - changesBefore);
+            if (initialized && previous != count.get()) {
+                log.info("Количество пользователей сверено с базой: {} -> {}", previous, count.get());
+            }
+            initialized = true;
+        }
+    }
+}
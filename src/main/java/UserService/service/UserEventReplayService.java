@@ -0,0 +1,198 @@
+package UserService.service;
+
+import UserService.dao.UserDao;
+import UserService.dao.UserEventReplayDao;
+import UserService.dao.UserEventReplayDao.ReplayCheckpoint;
+import UserService.dto.UserReplayProgress;
+import UserService.entity.User;
+import UserService.kafka.UserEventProducer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Повторная публикация USER_SNAPSHOT для всех пользователей или диапазона id после сбоев у потребителей.
+// Пользователи читаются порциями по id, события идут через outbox, а контрольная точка сдвигается
+// в той же транзакции, поэтому после остановки или падения публикация продолжается без пропусков.
+// Скорость ограничена, чтобы не перегружать Postgres, relay и Kafka
+@Slf4j
+@Service
+public class UserEventReplayService {
+
+    private final UserDao userDao;
+    private final UserEventProducer userEventProducer;
+    private final UserEventReplayDao replayDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+    private final int ratePerSecond;
+
+    private final AtomicBoolean active = new AtomicBoolean();
+    private volatile boolean stopRequested;
+
+    public UserEventReplayService(UserDao userDao,
+                                  UserEventProducer userEventProducer,
+                                  UserEventReplayDao replayDao,
+                                  TransactionTemplate transactionTemplate,
+                                  @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                  @Value("${user-service.replay.chunk-size:500}") int chunkSize,
+                                  @Value("${user-service.replay.rate-per-second:2000}") int ratePerSecond) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("user-service.replay.chunk-size должен быть больше 0");
+        }
+        if (ratePerSecond < 0) {
+            throw new IllegalArgumentException("user-service.replay.rate-per-second не может быть отрицательным");
+        }
+        this.userDao = userDao;
+        this.userEventProducer = userEventProducer;
+        this.replayDao = replayDao;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public UserReplayProgress start(Long fromId, Long toId) {
+        long from = fromId == null ? 1 : fromId;
+        long to = toId == null ? Long.MAX_VALUE : toId;
+        if (from < 1 || to < from) {
+            throw new IllegalArgumentException("Некорректный диапазон id");
+        }
+        begin(() -> replayDao.start(from, to));
+        log.info("Повторная публикация событий запущена для id {}..{}", from, toId == null ? "" : toId);
+        return progress();
+    }
+
+    public UserReplayProgress resume() {
+        ReplayCheckpoint checkpoint = replayDao.find()
+                .orElseThrow(() -> new IllegalStateException("Нет контрольной точки повторной публикации"));
+        if ("COMPLETED".equals(checkpoint.status())) {
+            throw new IllegalStateException("Повторная публикация уже завершена");
+        }
+        begin(replayDao::resume);
+        log.info("Повторная публикация событий продолжена после id {}", checkpoint.lastId());
+        return progress();
+    }
+
+    // Остановка видна и другим экземплярам: их сдвиг контрольной точки перестанет проходить
+    public UserReplayProgress stop() {
+        stopRequested = true;
+        if (!active.get()) {
+            replayDao.find()
+                    .filter(checkpoint -> "RUNNING".equals(checkpoint.status()))
+                    .ifPresent(checkpoint -> replayDao.finish("STOPPED", null));
+        }
+        return progress();
+    }
+
+    public UserReplayProgress progress() {
+        return replayDao.find()
+                .map(checkpoint -> UserReplayProgress.builder()
+                        .status(checkpoint.status())
+                        .active(active.get())
+                        .fromId(checkpoint.fromId())
+                        .toId(checkpoint.toId() == Long.MAX_VALUE ? null : checkpoint.toId())
+                        .lastId(checkpoint.lastId())
+                        .replayed(checkpoint.replayed())
+                        .ratePerSecond(ratePerSecond)
+                        .error(checkpoint.error())
+                        .startedAt(checkpoint.startedAt())
+                        .updatedAt(checkpoint.updatedAt())
+                        .build())
+                .orElseGet(() -> UserReplayProgress.builder()
+                        .status("NONE")
+                        .active(active.get())
+                        .ratePerSecond(ratePerSecond)
+                        .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+    }
+
+    private void begin(Runnable checkpointUpdate) {
+        if (!active.compareAndSet(false, true)) {
+            throw new IllegalStateException("Повторная публикация уже выполняется");
+        }
+        try {
+            stopRequested = false;
+            checkpointUpdate.run();
+            taskExecutor.execute(this::replay);
+        } catch (RuntimeException e) {
+            active.set(false);
+            throw e;
+        }
+    }
+
+    private void replay() {
+        long started = System.nanoTime();
+        long replayed = 0;
+        try {
+            ReplayCheckpoint checkpoint = replayDao.find()
+                    .orElseThrow(() -> new IllegalStateException("Нет контрольной точки повторной публикации"));
+            long lastId = checkpoint.lastId();
+            while (!stopRequested) {
+                long after = lastId;
+                List<User> users = transactionTemplate.execute(status -> replayChunk(after, checkpoint.toId()));
+                if (users == null || users.isEmpty()) {
+                    replayDao.finish("COMPLETED", null);
+                    log.info("Повторная публикация событий завершена, последний id {}", lastId);
+                    return;
+                }
+                lastId = users.getLast().getId();
+                replayed += users.size();
+                throttle(started, replayed);
+            }
+            replayDao.finish("STOPPED", null);
+            log.info("Повторная публикация событий остановлена на id {}", lastId);
+        } catch (CheckpointLostException e) {
+            log.warn("Повторная публикация прервана: контрольную точку остановили или сдвинули на другом экземпляре");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            replayDao.finish("STOPPED", null);
+        } catch (Exception e) {
+            log.error("Ошибка повторной публикации событий", e);
+            replayDao.finish("FAILED", e.getMessage());
+        } finally {
+            active.set(false);
+        }
+    }
+
+    private List<User> replayChunk(long after, long to) {
+        List<User> users = userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(after, to, Limit.of(chunkSize));
+        if (users.isEmpty()) {
+            return users;
+        }
+        userEventProducer.sendUserSnapshotEvents(users);
+        if (!replayDao.advance(after, users.getLast().getId(), users.size())) {
+            // Исключение откатывает и уже записанные в outbox события порции
+            throw new CheckpointLostException();
+        }
+        return users;
+    }
+
+    // Выравниваем среднюю скорость с начала запуска, поэтому медленная порция не копит задержку.
+    // rate-per-second: 0 - без ограничения
+    private void throttle(long startedNanos, long replayed) throws InterruptedException {
+        if (ratePerSecond == 0) {
+            return;
+        }
+        long expectedNanos = replayed * TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long sleepNanos = expectedNanos - (System.nanoTime() - startedNanos);
+        if (sleepNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    private static class CheckpointLostException extends RuntimeException {
+    }
+}
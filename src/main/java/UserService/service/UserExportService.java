@@ -0,0 +1,64 @@
+package UserService.service;
+
+import UserService.dao.UserCopyDao;
+import UserService.dao.UserDao;
+import UserService.dto.UserResponse;
+import UserService.entity.User;
+import UserService.mapper.UserMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final ObjectWriter NDJSON_WRITER = new ObjectMapper().writerFor(UserResponse.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserDao userDao;
+    private final UserCopyDao userCopyDao;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+
+    // Курсор Postgres работает только внутри транзакции, иначе драйвер вычитает всю таблицу в память
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) {
+        long exported = 0;
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        try (Stream<User> users = userDao.streamAllOrderedById()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                buffered.write(NDJSON_WRITER.writeValueAsBytes(userMapper.toResponse(user)));
+                buffered.write('\n');
+                // Не держим выгруженные сущности в контексте персистентности
+                entityManager.detach(user);
+                exported++;
+            }
+            buffered.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при выгрузке пользователей", e);
+        }
+        log.info("Выгружено пользователей в NDJSON: {}", exported);
+        return exported;
+    }
+
+    public long exportCsv(OutputStream out) {
+        long exported = userCopyDao.copyOutCsv(out);
+        log.info("Выгружено пользователей в CSV: {}", exported);
+        return exported;
+    }
+}
@@ -0,0 +1,37 @@
+package UserService.service;
+
+import UserService.dao.UserCopyDao;
+import UserService.dto.UserImportResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private final UserCopyDao userCopyDao;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserCounter userCounter;
+
+    public UserImportResult importCsv(InputStream csv) {
+        try {
+            // События USER_CREATED пишутся в outbox тем же запросом, что и порция пользователей
+            UserImportResult result = userCopyDao.copyInCsv(csv, chunk -> {
+                userCounter.add(chunk.size());
+                userAutocompleteIndex.putAll(chunk);
+            });
+            log.info("Импорт пользователей завершен: строк {}, импортировано {}, пропущено {}",
+                    result.getTotal(), result.getImported(), result.getSkipped());
+            return result;
+        } catch (IllegalArgumentException e) {
+            log.warn("Импорт пользователей отклонен: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
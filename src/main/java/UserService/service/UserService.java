@@ -1,44 +1,70 @@
 package UserService.service;
 
+import UserService.config.CacheConfig;
 import UserService.dao.UserDao;
 import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserFieldChange;
+import UserService.dto.UserPage;
 import UserService.dto.UserResponse;
 import UserService.entity.User;
 import UserService.feignClient.NotificationClient;
 import UserService.mapper.UserMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import UserService.kafka.UserEventProducer;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "user.service", description = "Время выполнения операций UserService")
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final UserDao userDao;
     private final UserMapper userMapper;
     private final UserEventProducer userEventProducer;
     private final NotificationClient notificationClient;
+    private final UserAutocompleteIndex userAutocompleteIndex;
+    private final UserCounter userCounter;
 
     @Transactional
     public UserResponse createUser(CreateUserRequest request) {
         try {
             User user = userMapper.toEntity(request);
             User savedUser = userDao.save(user);
+            // С id из последовательности INSERT откладывается до коммита: сбрасываем сразу,
+            // чтобы конфликт email проявился до записи события
+            userDao.flush();
             log.info("Пользователь сохранен: {}", user.getEmail());
+            afterCommit(() -> {
+                userCounter.add(1);
+                userAutocompleteIndex.put(savedUser.getId(), savedUser.getName(), savedUser.getEmail());
+            });
 
-            // Отправляем событие в Kafka
+            // Событие пишется в outbox в той же транзакции и публикуется в Kafka после коммита
             userEventProducer.sendUserCreatedEvent(
                     savedUser.getId(),
                     savedUser.getName(),
@@ -55,6 +81,7 @@ public class UserService {
         }
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public UserResponse getUserById(Long id) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Некорректный ID");
@@ -71,46 +98,67 @@ public class UserService {
         }
     }
 
-    public List<UserResponse> getAllUsers() {
+    public UserPage getUsersPage(Long after, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        long cursor = after == null ? 0L : after;
         try {
-            List<User> users = userDao.findAll();
-            return users.stream()
-                    .map(userMapper::toResponse)
-                    .toList();
+            // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+            List<User> users = userDao.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+            return toPage(users, pageSize);
         } catch (Exception e) {
-            log.error("Ошибка при получении всех пользователей", e);
+            log.error("Ошибка при получении пользователей после ID: {}", after, e);
             throw new RuntimeException("Ошибка при получении пользователей", e);
         }
     }
 
     @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public UserResponse updateUser(Long id, UpdateUserRequest request) {
 
             User user = userDao.findById(id)
                     .orElseThrow(() -> new IllegalArgumentException("Пользователь не найден"));
 
-            if (request.getName() != null) {
+            Map<String, UserFieldChange> changes = new LinkedHashMap<>();
+
+            if (request.getName() != null && !request.getName().equals(user.getName())) {
+                changes.put("name", change(user.getName(), request.getName()));
                 user.setName(request.getName());
             }
 
             if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-                if (userDao.existsByEmail(request.getEmail())) {
-
-                    throw new IllegalArgumentException("Новый email уже занят");
-                }
+                changes.put("email", change(user.getEmail(), request.getEmail()));
                 user.setEmail(request.getEmail());
             }
 
-            if (request.getAge() != null) {
+            if (request.getAge() != null && !request.getAge().equals(user.getAge())) {
+                changes.put("age", change(user.getAge(), request.getAge()));
                 user.setAge(request.getAge());
             }
 
             User updatedUser = userDao.save(user);
+            // Занятость email проверяет уникальный индекс, а не отдельный запрос existsByEmail:
+            // UPDATE сбрасывается сразу, чтобы конфликт проявился до записи события
+            if (changes.containsKey("email")) {
+                try {
+                    userDao.flush();
+                } catch (DataIntegrityViolationException e) {
+                    throw new IllegalArgumentException("Новый email уже занят", e);
+                }
+            }
             log.info("Пользователь обновлен: {}", user.getEmail());
+
+            // Другие реплики сбрасывают свой кэш по этому событию. Через outbox оно уходит только после коммита.
+            // Если ничего не изменилось, потребителям нечего применять
+            if (!changes.isEmpty()) {
+                userEventProducer.sendUserUpdatedEvent(updatedUser.getId(), changes);
+            }
+            afterCommit(() -> userAutocompleteIndex.put(
+                    updatedUser.getId(), updatedUser.getName(), updatedUser.getEmail()));
             return userMapper.toResponse(updatedUser);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public void deleteUser(Long id) {
             User user = userDao.findById(id)
                     .orElseThrow(() -> {
@@ -121,20 +169,28 @@ public class UserService {
             String userEmail = user.getEmail();
             String userName = user.getName();
 
-            userDao.deleteById(id);
+            // Удаляем уже загруженную сущность: deleteById искал бы ее повторно
+            userDao.delete(user);
             log.info("Пользователь удален: {}", id);
 
-            // Отправляем событие в Kafka
+            // Отправляем событие в Kafka через outbox
             userEventProducer.sendUserDeletedEvent(id, userName, userEmail);
+            afterCommit(() -> {
+                userCounter.add(-1);
+                userAutocompleteIndex.remove(id);
+            });
 
     }
 
-    public List<UserResponse> searchUsersByName(String name) {
+    public UserPage searchUsersByName(String name, Long after, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        if (name == null || name.isBlank()) {
+            return new UserPage(List.of(), null);
+        }
+        long cursor = after == null ? 0L : after;
         try {
-            List<User> users = userDao.findByName(name);
-            return users.stream()
-                    .map(userMapper::toResponse)
-                    .toList();
+            List<User> users = userDao.searchByNameContaining(containsPattern(name.strip()), cursor, pageSize + 1);
+            return toPage(users, pageSize);
         } catch (Exception e) {
             log.error("Ошибка при поиске пользователей по имени: {}", name, e);
             throw new RuntimeException("Ошибка при поиске пользователей", e);
@@ -142,8 +198,19 @@ public class UserService {
     }
 
     public long getUserCount() {
+        return getUserCount(false);
+    }
+
+    // Точное значение берется из счетчика в памяти, приблизительное - из статистики Postgres без сканирования таблицы
+    public long getUserCount(boolean approximate) {
         try {
-            return userDao.count();
+            if (approximate) {
+                long estimate = userDao.estimateCount();
+                if (estimate >= 0) {
+                    return estimate;
+                }
+            }
+            return userCounter.get();
         } catch (Exception e) {
             log.error("Ошибка при подсчете пользователей", e);
             throw new RuntimeException("Ошибка при подсчете пользователей", e);
@@ -161,4 +228,46 @@ public class UserService {
         }
     }
 
+    // Локальные счетчик и индекс подсказок не должны видеть изменения, которые еще могут откатиться
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Некорректный размер страницы");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static UserFieldChange change(Object oldValue, Object newValue) {
+        return new UserFieldChange(Objects.toString(oldValue, null), Objects.toString(newValue, null));
+    }
+
+    // Символы шаблона LIKE в запросе ищутся буквально
+    static String containsPattern(String text) {
+        String escaped = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private UserPage toPage(List<User> users, int pageSize) {
+        boolean hasNext = users.size() > pageSize;
+        List<User> pageUsers = hasNext ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasNext ? pageUsers.get(pageSize - 1).getId() : null;
+        return new UserPage(pageUsers.stream().map(userMapper::toResponse).toList(), nextCursor);
+    }
 }
@@ -0,0 +1,8 @@
+-- Исходная схема, которую раньше создавал Hibernate. IF NOT EXISTS позволяет применить миграцию к существующей базе
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    email      VARCHAR(100) NOT NULL UNIQUE,
+    age        INTEGER,
+    created_at TIMESTAMP(6)
+);
@@ -0,0 +1,8 @@
+-- IDENTITY отключает пакетную вставку в Hibernate, поэтому id выдаются из последовательности пулами по 50.
+-- Последовательность стартует за текущим максимумом с запасом на один пул, чтобы не пересечься с существующими id
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users));
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
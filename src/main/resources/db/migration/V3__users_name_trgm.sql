@@ -0,0 +1,4 @@
+-- Поиск по подстроке имени без учёта регистра (name ILIKE '%...%'): обычный B-tree здесь не помогает,
+-- GIN-индекс по триграммам позволяет не сканировать всю таблицу
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_name_trgm_idx ON users USING gin (name gin_trgm_ops);
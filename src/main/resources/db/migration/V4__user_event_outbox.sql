@@ -0,0 +1,8 @@
+-- Transactional outbox: события пишутся в одной транзакции с изменением пользователя,
+-- фоновый relay публикует их в Kafka порциями и удаляет отправленные строки
+CREATE TABLE IF NOT EXISTS user_event_outbox (
+    id          BIGSERIAL PRIMARY KEY,
+    message_key VARCHAR(100) NOT NULL,
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP
+);
@@ -0,0 +1,4 @@
+-- В outbox попадают сообщения для нескольких топиков. Строки без payload - снимки состояния пользователя:
+-- значение читается из users в момент публикации, для удаленного пользователя публикуется tombstone
+ALTER TABLE user_event_outbox ADD COLUMN IF NOT EXISTS topic VARCHAR(100) NOT NULL DEFAULT 'user-events';
+ALTER TABLE user_event_outbox ALTER COLUMN payload DROP NOT NULL;
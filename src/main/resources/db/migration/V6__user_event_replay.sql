@@ -0,0 +1,13 @@
+-- Контрольная точка повторной публикации событий (UserEventReplayService). Одна строка на весь сервис:
+-- last_id обновляется в одной транзакции с записью порции событий в outbox
+CREATE TABLE IF NOT EXISTS user_event_replay (
+    id         SMALLINT     PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    status     VARCHAR(20)  NOT NULL,
+    from_id    BIGINT       NOT NULL,
+    to_id      BIGINT       NOT NULL,
+    last_id    BIGINT       NOT NULL,
+    replayed   BIGINT       NOT NULL DEFAULT 0,
+    error      TEXT,
+    started_at TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP,
+    updated_at TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP
+);
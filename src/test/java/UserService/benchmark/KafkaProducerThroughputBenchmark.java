@@ -0,0 +1,146 @@
+package UserService.benchmark;
+
+import UserService.dto.UserEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Сравнивает настройки продюсера на встроенном брокере. Запуск: mvn test -Pbenchmark
+// Абсолютные числа зависят от машины, смысл имеет только соотношение между профилями
+@Slf4j
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 3, topics = KafkaProducerThroughputBenchmark.TOPIC)
+class KafkaProducerThroughputBenchmark {
+
+    static final String TOPIC = "user-events-benchmark";
+
+    private static final int WARMUP_EVENTS = 20_000;
+    private static final int EVENTS = 200_000;
+    private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(UserEventMessage.class);
+
+    @Test
+    @DisplayName("Benchmark: пропускная способность продюсера с настройками по умолчанию, application.yml и kafka-throughput")
+    void compareProducerProfiles(EmbeddedKafkaBroker broker) throws Exception {
+        List<String> payloads = payloads();
+
+        List<Result> results = List.of(
+                run("kafka defaults", broker, Map.of(), payloads),
+                run("application.yml", broker, Map.of(
+                        ProducerConfig.ACKS_CONFIG, "all",
+                        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                        ProducerConfig.LINGER_MS_CONFIG, 5,
+                        ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024,
+                        ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"), payloads),
+                run("kafka-throughput", broker, Map.of(
+                        ProducerConfig.ACKS_CONFIG, "all",
+                        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                        ProducerConfig.LINGER_MS_CONFIG, 20,
+                        ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+                        ProducerConfig.BUFFER_MEMORY_CONFIG, 64L * 1024 * 1024,
+                        ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd"), payloads));
+
+        log.info(String.format("%-16s %12s %10s %14s %16s %18s %12s",
+                "profile", "events/s", "MB/s", "batch-size-avg", "queue-time-avg", "request-latency-avg", "compression"));
+        for (Result result : results) {
+            log.info(String.format("%-16s %12.0f %10.1f %14.0f %16.2f %18.2f %12.2f",
+                    result.profile(), result.eventsPerSecond(), result.megabytesPerSecond(), result.batchSizeAvg(),
+                    result.recordQueueTimeAvg(), result.requestLatencyAvg(), result.compressionRateAvg()));
+        }
+
+        // Те же метрики продюсера, что уходят в Prometheus, должны быть доступны через MicrometerProducerListener
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.eventsPerSecond()).isPositive();
+            assertThat(result.batchSizeAvg()).isPositive();
+        });
+    }
+
+    private static Result run(String profile, EmbeddedKafkaBroker broker, Map<String, Object> overrides,
+                              List<String> payloads) throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.putAll(overrides);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        try {
+            KafkaTemplate<String, String> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+            send(kafkaTemplate, payloads.subList(0, WARMUP_EVENTS));
+
+            long started = System.nanoTime();
+            send(kafkaTemplate, payloads);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            long bytes = payloads.stream().mapToLong(payload -> payload.getBytes(StandardCharsets.UTF_8).length).sum();
+            // Метрики читаем до закрытия продюсера, после него они снимаются с регистрации
+            return new Result(profile,
+                    payloads.size() / seconds,
+                    bytes / seconds / (1024 * 1024),
+                    gauge(meterRegistry, "kafka.producer.batch.size.avg"),
+                    gauge(meterRegistry, "kafka.producer.record.queue.time.avg"),
+                    gauge(meterRegistry, "kafka.producer.request.latency.avg"),
+                    gauge(meterRegistry, "kafka.producer.compression.rate.avg"));
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    private static void send(KafkaTemplate<String, String> kafkaTemplate, List<String> payloads) throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[payloads.size()];
+        for (int i = 0; i < payloads.size(); i++) {
+            futures[i] = kafkaTemplate.send(TOPIC, "user" + i + "@example.com", payloads.get(i));
+        }
+        CompletableFuture.allOf(futures).get(2, TimeUnit.MINUTES);
+    }
+
+    private static double gauge(MeterRegistry meterRegistry, String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge == null ? Double.NaN : gauge.value();
+    }
+
+    // Полезная нагрузка совпадает по форме с событиями, которые relay публикует из outbox
+    private static List<String> payloads() throws Exception {
+        String timestamp = LocalDateTime.now().toString();
+        List<String> payloads = new ArrayList<>(EVENTS);
+        for (long id = 1; id <= EVENTS; id++) {
+            payloads.add(MESSAGE_WRITER.writeValueAsString(UserEventMessage.builder()
+                    .eventType("USER_CREATED")
+                    .userId(id)
+                    .userName("User " + id)
+                    .userEmail("user" + id + "@example.com")
+                    .timestamp(timestamp)
+                    .build()));
+        }
+        return payloads;
+    }
+
+    private record Result(String profile, double eventsPerSecond, double megabytesPerSecond, double batchSizeAvg,
+                          double recordQueueTimeAvg, double requestLatencyAvg, double compressionRateAvg) {
+    }
+}
@@ -0,0 +1,153 @@
+package UserService.benchmark;
+
+import UserService.SpringApp;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Сравнивает servlet-стек (Spring MVC, JPA) и профиль reactive (WebFlux, R2DBC) под одинаковой нагрузкой
+// на одной базе. Запуск: mvn test -Pbenchmark. Кэш пользователей отключен, чтобы каждый запрос доходил до базы;
+// пулы JDBC и R2DBC одного размера
+@Slf4j
+@Tag("benchmark")
+@Testcontainers
+class UserApiStackBenchmark {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final int USERS = 50_000;
+    private static final int POOL_SIZE = 20;
+    private static final int CONCURRENCY = 256;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(5);
+
+    @Test
+    @DisplayName("Benchmark: пропускная способность и задержки API на servlet- и reactive-стеке")
+    void compareStacks() throws Exception {
+        List<Result> results = List.of(run("servlet"), run("reactive"));
+
+        log.info(String.format("%-10s %12s %10s %10s %10s %10s", "stack", "requests/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        for (Result result : results) {
+            log.info(String.format("%-10s %12.0f %10.2f %10.2f %10.2f %10d", result.stack(), result.requestsPerSecond(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis(), result.errors()));
+        }
+
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.requestsPerSecond()).isPositive();
+            assertThat(result.errors()).isZero();
+        });
+    }
+
+    private static Result run(String stack) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringApp.class)
+                .properties(
+                        "spring.main.web-application-type=" + stack,
+                        "server.port=0",
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "user-service.r2dbc.pool.max-size=" + POOL_SIZE,
+                        "user-service.cache.users.maximum-size=0",
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false")
+                .run()) {
+            long maxId = seed(context.getBean(JdbcTemplate.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            load(baseUrl, maxId, WARMUP);
+            return load(baseUrl, maxId, MEASUREMENT).withStack(stack);
+        }
+    }
+
+    private static long seed(JdbcTemplate jdbcTemplate) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        if (count == null || count < USERS) {
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, name, email, age, created_at)
+                    SELECT nextval('users_seq'), 'User ' || g, 'user' || g || '@example.com', 20 + g % 50, LOCALTIMESTAMP
+                    FROM generate_series(1, ?) g
+                    ON CONFLICT (email) DO NOTHING
+                    """, USERS);
+            jdbcTemplate.execute("ANALYZE users");
+        }
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class);
+    }
+
+    // Замкнутая модель нагрузки: каждый клиент отправляет следующий запрос после ответа на предыдущий.
+    // Смесь: чтение по id и страница списка со случайного курсора
+    private static Result load(String baseUrl, long maxId, Duration duration) throws Exception {
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Histogram>> futures = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures.add(clients.submit(() -> {
+                    Histogram latencies = new Histogram(HIGHEST_LATENCY, 3);
+                    while (System.nanoTime() < deadline) {
+                        long id = ThreadLocalRandom.current().nextLong(1, maxId + 1);
+                        String path = ThreadLocalRandom.current().nextBoolean()
+                                ? "/api/users/" + id
+                                : "/api/users?after=" + id + "&limit=20";
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        // 404 - удаленный или пропущенный id, для нагрузки это нормальный ответ
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.recordValue(Math.min(System.nanoTime() - started, HIGHEST_LATENCY));
+                    }
+                    return latencies;
+                }));
+            }
+            // Гистограмма на клиента без синхронизации в цикле нагрузки, сводится после завершения
+            Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+            for (Future<Histogram> future : futures) {
+                all.add(future.get());
+            }
+            return new Result(null, all.getTotalCount() / (double) duration.toSeconds(),
+                    millis(all.getValueAtPercentile(50)), millis(all.getValueAtPercentile(99)), millis(all.getMaxValue()),
+                    errors.get());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private record Result(String stack, double requestsPerSecond, double p50Millis, double p99Millis, double maxMillis,
+                          long errors) {
+
+        Result withStack(String stack) {
+            return new Result(stack, requestsPerSecond, p50Millis, p99Millis, maxMillis, errors);
+        }
+    }
+}
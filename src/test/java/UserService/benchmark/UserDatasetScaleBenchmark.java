@@ -0,0 +1,141 @@
+package UserService.benchmark;
+
+import UserService.SpringApp;
+import UserService.dao.UserDao;
+import UserService.service.UserService;
+import UserService.util.UserDatasetGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+// Запросы списка, поиска и подсчета на объеме продакшена. Запуск: mvn test -Pbenchmark
+// Объем и seed: -Ddataset.users=10000000 -Ddataset.seed=42, потоки загрузки: -Ddataset.parallelism.
+// Планы берутся из EXPLAIN (ANALYZE, BUFFERS) тех же запросов, что выполняет UserDao: на десятках
+// строк Postgres выбирает последовательное сканирование, поэтому проверять индексы имеет смысл только здесь
+@Slf4j
+@Tag("benchmark")
+@Testcontainers
+class UserDatasetScaleBenchmark {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_wal_size=4GB");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int PAGE_SIZE = 50;
+    private static final int ITERATIONS = 200;
+    // count(*) на десятках миллионов строк идет секунды, с запасом
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(5);
+
+    @Test
+    @DisplayName("Benchmark: планы и время списка, поиска и подсчета на синтетическом наборе пользователей")
+    void queriesAtScale() throws Exception {
+        long users = Long.getLong("dataset.users", 10_000_000L);
+        long seed = Long.getLong("dataset.seed", 42L);
+        int parallelism = Integer.getInteger("dataset.parallelism", Runtime.getRuntime().availableProcessors());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size=" + Math.max(parallelism, 10),
+                        "user-service.cache.users.maximum-size=0",
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false")
+                .run()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            UserService userService = context.getBean(UserService.class);
+            UserDao userDao = context.getBean(UserDao.class);
+
+            long started = System.nanoTime();
+            long firstId = new UserDatasetGenerator(seed).load(context.getBean(DataSource.class), users, parallelism);
+            double loadSeconds = (System.nanoTime() - started) / 1e9;
+            log.info("Загружено {} пользователей за {} с ({} строк/с, {} потоков)", users,
+                    String.format("%.1f", loadSeconds), String.format("%.0f", users / loadSeconds), parallelism);
+            long middle = firstId + users / 2;
+
+            List<String> plans = new ArrayList<>();
+            plans.add(explain(jdbcTemplate, "list", "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?", middle, PAGE_SIZE + 1));
+            plans.add(explain(jdbcTemplate, "search",
+                    "SELECT * FROM users WHERE name ILIKE ? AND id > ? ORDER BY id LIMIT ?", "%hoffmann%", 0L, PAGE_SIZE + 1));
+            plans.add(explain(jdbcTemplate, "search-rare",
+                    "SELECT * FROM users WHERE name ILIKE ? AND id > ? ORDER BY id LIMIT ?", "%zzz%", 0L, PAGE_SIZE + 1));
+            plans.forEach(log::info);
+            assertThat(plans).noneMatch(plan -> plan.contains("Seq Scan on users"));
+
+            log.info(String.format("%-24s %10s %10s %10s", "operation", "p50 ms", "p99 ms", "max ms"));
+            report("getUsersPage", () -> userService.getUsersPage(middle, PAGE_SIZE));
+            report("searchUsersByName", () -> userService.searchUsersByName("Hoffmann", null, PAGE_SIZE));
+            report("getUserCount(approx)", () -> userService.getUserCount(true));
+            report("count(*)", userDao::count, 5);
+
+            long estimate = userService.getUserCount(true);
+            assertThat(estimate).isCloseTo(users, withPercentage(5));
+        }
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, String name, String sql, Object... args) throws Exception {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class, args);
+        JsonNode root = OBJECT_MAPPER.readTree(json).get(0);
+        StringBuilder plan = new StringBuilder(String.format("%s: %.2f ms%n", name, root.path("Execution Time").asDouble()));
+        describe(root.path("Plan"), 1, plan);
+        return plan.toString();
+    }
+
+    private static void describe(JsonNode node, int depth, StringBuilder plan) {
+        plan.append("  ".repeat(depth)).append(node.path("Node Type").asText());
+        if (node.has("Relation Name")) {
+            plan.append(" on ").append(node.path("Relation Name").asText());
+        }
+        if (node.has("Index Name")) {
+            plan.append(" using ").append(node.path("Index Name").asText());
+        }
+        plan.append(String.format(" (rows=%d, shared hit=%d read=%d)%n", node.path("Actual Rows").asLong(),
+                node.path("Shared Hit Blocks").asLong(), node.path("Shared Read Blocks").asLong()));
+        for (JsonNode child : node.path("Plans")) {
+            describe(child, depth + 1, plan);
+        }
+    }
+
+    private static void report(String name, Supplier<?> operation) {
+        report(name, operation, ITERATIONS);
+    }
+
+    private static void report(String name, Supplier<?> operation, int iterations) {
+        Histogram latencies = new Histogram(HIGHEST_LATENCY, 3);
+        operation.get();
+        for (int i = 0; i < iterations; i++) {
+            long started = System.nanoTime();
+            operation.get();
+            latencies.recordValue(Math.min(System.nanoTime() - started, HIGHEST_LATENCY));
+        }
+        log.info(String.format("%-24s %10.2f %10.2f %10.2f", name, millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getMaxValue())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,102 @@
+package UserService.benchmark;
+
+import UserService.dto.UserEventMessage;
+import UserService.kafka.AvroUserEventCodec;
+import UserService.kafka.JsonUserEventCodec;
+import UserService.kafka.UserEventCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Размер и стоимость кодирования события в JSON и Avro. Запуск: mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+class UserEventCodecBenchmark {
+
+    private static final int EVENTS = 100_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Test
+    @DisplayName("Benchmark: размер и время кодирования события в JSON и Avro")
+    void compareCodecs() throws Exception {
+        List<UserEventMessage> messages = messages();
+
+        Result json = run("json", new JsonUserEventCodec(), messages);
+        Result avro = run("avro", new AvroUserEventCodec(), messages);
+
+        log.info(String.format("%-6s %14s %14s %14s", "format", "bytes/event", "encode ns/op", "decode ns/op"));
+        for (Result result : List.of(json, avro)) {
+            log.info(String.format("%-6s %14.1f %14.0f %14.0f",
+                    result.format(), result.bytesPerEvent(), result.encodeNanos(), result.decodeNanos()));
+        }
+
+        assertThat(avro.bytesPerEvent()).isLessThan(json.bytesPerEvent());
+    }
+
+    private static Result run(String format, UserEventCodec codec, List<UserEventMessage> messages) throws Exception {
+        List<byte[]> payloads = new ArrayList<>(messages.size());
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            payloads = encode(codec, messages);
+            decode(codec, payloads);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            payloads = encode(codec, messages);
+            encodeNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            decode(codec, payloads);
+            decodeNanos += System.nanoTime() - started;
+        }
+
+        long bytes = payloads.stream().mapToLong(payload -> payload.length).sum();
+        double operations = (double) ROUNDS * messages.size();
+        return new Result(format, (double) bytes / messages.size(), encodeNanos / operations, decodeNanos / operations);
+    }
+
+    private static List<byte[]> encode(UserEventCodec codec, List<UserEventMessage> messages) throws Exception {
+        List<byte[]> payloads = new ArrayList<>(messages.size());
+        for (UserEventMessage message : messages) {
+            payloads.add(codec.encode(message));
+        }
+        return payloads;
+    }
+
+    private static void decode(UserEventCodec codec, List<byte[]> payloads) throws Exception {
+        long ids = 0;
+        for (byte[] payload : payloads) {
+            ids += codec.decode(payload).getUserId();
+        }
+        // Результат используется, чтобы JIT не выбросил разбор
+        assertThat(ids).isPositive();
+    }
+
+    private static List<UserEventMessage> messages() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserEventMessage> messages = new ArrayList<>(EVENTS);
+        for (long id = 1; id <= EVENTS; id++) {
+            messages.add(UserEventMessage.builder()
+                    .eventType("USER_CREATED")
+                    .userId(id)
+                    .userName("User " + id)
+                    .userEmail("user" + id + "@example.com")
+                    .timestamp(now.plusNanos(id * 1_000_000).toString())
+                    .build());
+        }
+        return messages;
+    }
+
+    private record Result(String format, double bytesPerEvent, double encodeNanos, double decodeNanos) {
+    }
+}
@@ -0,0 +1,117 @@
+package UserService.benchmark.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Все JMH-бенчмарки пакета с профилировщиком GC. Запуск: mvn test -Pjmh
+// Результаты пишутся в target/jmh/results.json и сравниваются с сохраненным базовым прогоном
+// (benchmarks/jmh-baseline.json). Базовый прогон снимается на машине, где потом идут сравнения,
+// и коммитится вместе с релизом: mvn test -Pjmh -Djmh.update-baseline=true.
+// Таблица сравнения выводится в лог и не ломает сборку: время зависит от машины, alloc.norm - нет.
+// Сборку ломает только потеря выигрыша шаблонов UserLinks перед linkTo(methodOn(...))
+@Slf4j
+@Tag("jmh")
+class JmhBenchmarkSuite {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    @DisplayName("JMH: горячие пути маппинга, ссылок HATEOAS, сериализации ответов и событий")
+    void runSuite() throws Exception {
+        Path results = Path.of(System.getProperty("jmh.results", "target/jmh/results.json"));
+        Path baseline = Path.of(System.getProperty("jmh.baseline", "benchmarks/jmh-baseline.json"));
+        Files.createDirectories(results.toAbsolutePath().getParent());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(getClass().getPackageName() + "\\..*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .forks(Integer.getInteger("jmh.forks", 1))
+                .warmupIterations(Integer.getInteger("jmh.warmup-iterations", 3))
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(Integer.getInteger("jmh.iterations", 5))
+                .measurementTime(TimeValue.seconds(1))
+                .shouldDoGC(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.toString());
+        new Runner(options.build()).run();
+
+        Map<String, Metrics> current = read(results);
+        assertThat(current).isNotEmpty();
+        assertThat(score(current, UserLinksBenchmark.class, "precompiledTemplates"))
+                .isLessThan(score(current, UserLinksBenchmark.class, "linkToMethodOn"));
+        if (Files.exists(baseline)) {
+            report(read(baseline), current);
+        } else {
+            log.warn("Базовый прогон {} не найден, сравнения нет. Сохранить текущий: -Djmh.update-baseline=true", baseline);
+        }
+        if (Boolean.getBoolean("jmh.update-baseline")) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Базовый прогон обновлен: {}", baseline);
+        }
+    }
+
+    private static void report(Map<String, Metrics> baseline, Map<String, Metrics> current) {
+        log.info(String.format("%-80s %12s %12s %8s %14s %14s", "benchmark", "base", "current", "delta",
+                "base B/op", "current B/op"));
+        current.forEach((name, metrics) -> {
+            Metrics base = baseline.get(name);
+            if (base == null) {
+                log.info(String.format("%-80s %12s %12.3f %8s %14s %14.0f", name, "-", metrics.score(), "new",
+                        "-", metrics.allocatedBytes()));
+                return;
+            }
+            log.info(String.format("%-80s %12.3f %12.3f %+7.1f%% %14.0f %14.0f %s", name, base.score(), metrics.score(),
+                    (metrics.score() - base.score()) / base.score() * 100, base.allocatedBytes(), metrics.allocatedBytes(),
+                    metrics.unit()));
+        });
+    }
+
+    private static double score(Map<String, Metrics> metrics, Class<?> benchmark, String method) {
+        Metrics result = metrics.get(benchmark.getName() + "." + method);
+        assertThat(result).as("результат %s.%s", benchmark.getSimpleName(), method).isNotNull();
+        return result.score();
+    }
+
+    // Имя бенчмарка вместе с параметрами, чтобы прогоны с разными @Param не смешивались
+    private static Map<String, Metrics> read(Path file) throws Exception {
+        Map<String, Metrics> metrics = new HashMap<>();
+        for (JsonNode run : OBJECT_MAPPER.readTree(file.toFile())) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param ->
+                    name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode primary = run.path("primaryMetric");
+            metrics.put(name.toString(), new Metrics(
+                    primary.path("score").asDouble(),
+                    primary.path("scoreUnit").asText(),
+                    run.path("secondaryMetrics").path(ALLOC_NORM).path("score").asDouble(Double.NaN)));
+        }
+        return metrics;
+    }
+
+    private record Metrics(double score, String unit, double allocatedBytes) {
+    }
+}
@@ -0,0 +1,72 @@
+package UserService.benchmark.jmh;
+
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import UserService.kafka.UserEventCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Сборка события и его сериализация: JSON для outbox (как в UserEventProducer) и запись для топика
+// в формате relay (UserEventCodecs)
+@State(Scope.Benchmark)
+public class UserEventMessageBenchmark {
+
+    private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(UserEventMessage.class);
+
+    @Param({"json", "avro"})
+    public String format;
+
+    private UserEventCodecs userEventCodecs;
+    private UserEventMessage created;
+    private Map<String, UserFieldChange> changes;
+
+    @Setup
+    public void setUp() {
+        userEventCodecs = new UserEventCodecs(format);
+        created = buildCreated();
+        changes = new LinkedHashMap<>();
+        changes.put("name", new UserFieldChange("John Doe", "John Smith"));
+        changes.put("age", new UserFieldChange("30", "31"));
+    }
+
+    private UserEventMessage buildCreated() {
+        return UserEventMessage.builder()
+                .eventType("USER_CREATED")
+                .userId(42L)
+                .userName("John Doe")
+                .userEmail("john@example.com")
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+    }
+
+    @Benchmark
+    public UserEventMessage buildCreatedEvent() {
+        return buildCreated();
+    }
+
+    @Benchmark
+    public String buildAndSerializeUpdatedEvent() throws Exception {
+        return MESSAGE_WRITER.writeValueAsString(UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(42L)
+                .changes(changes)
+                .timestamp(LocalDateTime.now().toString())
+                .build());
+    }
+
+    @Benchmark
+    public String serializeToOutbox() throws Exception {
+        return MESSAGE_WRITER.writeValueAsString(created);
+    }
+
+    @Benchmark
+    public ProducerRecord<String, byte[]> encodeForTopic() throws Exception {
+        return userEventCodecs.toRecord("user-events", "42", created);
+    }
+}
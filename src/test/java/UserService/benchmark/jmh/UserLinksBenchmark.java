@@ -0,0 +1,67 @@
+package UserService.benchmark.jmh;
+
+import UserService.Controller.UserController;
+import UserService.Controller.UserLinks;
+import UserService.dto.UserResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+// Сборка ссылок для страницы из 10 000 пользователей: linkTo(methodOn(...)) на каждую ссылку против
+// шаблонов UserLinks. JmhBenchmarkSuite проверяет, что шаблоны остаются быстрее
+@State(Scope.Thread)
+public class UserLinksBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private List<UserResponse> users;
+    private UserLinks userLinks;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        userLinks = new UserLinks();
+        users = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            users.add(new UserResponse(id, "User " + id, "user" + id + "@example.com", 30));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserResponse>> linkToMethodOn() {
+        return CollectionModel.of(users.stream()
+                .map(user -> {
+                    EntityModel<UserResponse> resource = EntityModel.of(user);
+                    resource.add(linkTo(methodOn(UserController.class).getUserByIdHal(user.getId())).withSelfRel());
+                    resource.add(linkTo(methodOn(UserController.class).updateUserHal(user.getId(), null)).withRel("update"));
+                    resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(user.getId()).toString(), "delete"));
+                    return resource;
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserResponse>> precompiledTemplates() {
+        UserLinks.Base links = userLinks.base();
+        return CollectionModel.of(users.stream()
+                .map(links::item)
+                .collect(Collectors.toList()));
+    }
+}
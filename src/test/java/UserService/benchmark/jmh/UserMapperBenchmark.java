@@ -0,0 +1,35 @@
+package UserService.benchmark.jmh;
+
+import UserService.dto.CreateUserRequest;
+import UserService.dto.UserResponse;
+import UserService.entity.User;
+import UserService.mapper.UserMapper;
+import UserService.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+// Преобразования MapStruct на пути каждого запроса: CreateUserRequest -> User и User -> UserResponse
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private CreateUserRequest request;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        request = new CreateUserRequest("John Doe", "john@example.com", 30);
+        user = new User("John Doe", "john@example.com", 30);
+        user.setId(42L);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return userMapper.toResponse(user);
+    }
+}
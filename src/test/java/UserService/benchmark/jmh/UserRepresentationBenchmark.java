@@ -0,0 +1,152 @@
+package UserService.benchmark.jmh;
+
+import UserService.Controller.UserController;
+import UserService.Controller.UserLinks;
+import UserService.config.RequestPhaseMetrics;
+import UserService.dto.UserPage;
+import UserService.dto.UserResponse;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserBulkService;
+import UserService.service.UserExportService;
+import UserService.service.UserImportService;
+import UserService.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Ответы UserController без HTTP-слоя: сборка EntityModel/CollectionModel со ссылками и запись страницы
+// пользователей конвертерами Spring MVC - HAL для CollectionModel и Jackson 3 JSON для UserPage. Конвертеры
+// берутся из контекста MVC с HAL, как в приложении (HypermediaAutoConfiguration включает ту же поддержку HAL),
+// и выбираются так же, как при записи ответа: первый, который умеет записать тип в запрошенном формате.
+// Сервис заменен заглушкой, поэтому в результат попадает только работа контроллера и сериализации
+@State(Scope.Thread)
+public class UserRepresentationBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private UserController userController;
+    private UserPage page;
+    private CollectionModel<EntityModel<UserResponse>> halPage;
+
+    private AnnotationConfigWebApplicationContext mvcContext;
+    private HttpMessageConverter<Object> jsonConverter;
+    private HttpMessageConverter<Object> halConverter;
+    private final BufferOutputMessage output = new BufferOutputMessage();
+
+    @Setup
+    public void setUp() {
+        List<UserResponse> users = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            users.add(new UserResponse(id, "User " + id, "user" + id + "@example.com", 30));
+        }
+        page = new UserPage(users, (long) pageSize);
+
+        UserService userService = mock(UserService.class, withSettings().stubOnly());
+        when(userService.getUsersPage(null, pageSize)).thenReturn(page);
+        when(userService.getUserById(1L)).thenReturn(users.get(0));
+        userController = new UserController(userService, mock(UserExportService.class), mock(UserBulkService.class),
+                mock(UserImportService.class), mock(UserAutocompleteIndex.class), new UserLinks(),
+                new RequestPhaseMetrics(new SimpleMeterRegistry()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        halPage = userController.getAllUsersHal(null, pageSize);
+
+        mvcContext = new AnnotationConfigWebApplicationContext();
+        mvcContext.setServletContext(new MockServletContext());
+        mvcContext.register(HalMvcConfig.class);
+        mvcContext.refresh();
+        List<HttpMessageConverter<?>> converters = mvcContext.getBean(RequestMappingHandlerAdapter.class).getMessageConverters();
+        jsonConverter = converter(converters, UserPage.class, MediaType.APPLICATION_JSON);
+        halConverter = converter(converters, halPage.getClass(), MediaTypes.HAL_JSON);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        mvcContext.close();
+    }
+
+    @Benchmark
+    public EntityModel<UserResponse> halEntityModel() {
+        return userController.getUserByIdHal(1L);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserResponse>> halCollectionModel() {
+        return userController.getAllUsersHal(null, pageSize);
+    }
+
+    @Benchmark
+    public int serializeLeanPage() throws Exception {
+        return output.write(jsonConverter, page, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public int serializeHalCollection() throws Exception {
+        return output.write(halConverter, halPage, MediaTypes.HAL_JSON);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpMessageConverter<Object> converter(List<HttpMessageConverter<?>> converters, Class<?> type,
+                                                          MediaType mediaType) {
+        return (HttpMessageConverter<Object>) converters.stream()
+                .filter(converter -> converter.canWrite(type, mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Нет конвертера для " + type.getName() + " в " + mediaType));
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL)
+    static class HalMvcConfig {
+    }
+
+    // Тело ответа в переиспользуемом буфере, чтобы в alloc.norm попадала только работа конвертера
+    private static final class BufferOutputMessage implements HttpOutputMessage {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256 * 1024);
+        private final HttpHeaders headers = new HttpHeaders();
+
+        int write(HttpMessageConverter<Object> converter, Object value, MediaType mediaType) throws Exception {
+            body.reset();
+            converter.write(value, mediaType, this);
+            return body.size();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
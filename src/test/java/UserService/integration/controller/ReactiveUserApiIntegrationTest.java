@@ -0,0 +1,76 @@
+package UserService.integration.controller;
+
+import UserService.dto.CreateUserRequest;
+import UserService.dto.UpdateUserRequest;
+import UserService.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Сценарии UserApiIntegrationTest на профиле reactive: WebFlux и R2DBC к той же базе. ReactiveUserService
+// отвечает на отсутствующего пользователя 404 и на занятый email 409, эти ответы проверяются здесь
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+class ReactiveUserApiIntegrationTest extends UserApiIntegrationTest {
+
+    @Test
+    @DisplayName("Reactive: POST /api/users - занятый email возвращает 409")
+    void createUser_WithTakenEmail_ShouldReturnConflict() {
+        saveUser("John Doe", "john@example.com", 30);
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("Other John", "john@example.com", 20))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(userDao.count()).isEqualTo(1);
+        assertThat(outbox()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reactive: GET /api/users/{id} - несуществующий пользователь - 404")
+    void getUserById_WithMissingId_ShouldReturnNotFound() {
+        webTestClient.get().uri("/api/users/{id}", 999_999L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Reactive: PUT /api/users/update/{id} - несуществующий пользователь - 404, занятый email - 409")
+    void updateUser_MissingUserOrTakenEmail_ShouldBeRejected() {
+        User john = saveUser("John Doe", "john@example.com", 30);
+        saveUser("Jane Doe", "jane@example.com", 25);
+
+        webTestClient.put().uri("/api/users/update/{id}", 999_999L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateUserRequest("John Updated", null, null))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.put().uri("/api/users/update/{id}", john.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateUserRequest(null, "jane@example.com", null))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(userDao.findById(john.getId()).orElseThrow().getEmail()).isEqualTo("john@example.com");
+        assertThat(outbox()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reactive: DELETE /api/users/delete/{id} - повторное удаление - 404")
+    void deleteUser_Twice_ShouldReturnNotFound() {
+        User saved = saveUser("John Doe", "john@example.com", null);
+
+        webTestClient.delete().uri("/api/users/delete/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/api/users/delete/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,8 @@
+package UserService.integration.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Сценарии UserApiIntegrationTest на servlet-стеке: Spring MVC и JPA
+@TestPropertySource(properties = "spring.main.web-application-type=servlet")
+class ServletUserApiIntegrationTest extends UserApiIntegrationTest {
+}
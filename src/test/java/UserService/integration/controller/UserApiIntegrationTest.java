@@ -0,0 +1,221 @@
+package UserService.integration.controller;
+
+import UserService.dao.UserDao;
+import UserService.dto.CreateUserRequest;
+import UserService.dto.UpdateUserRequest;
+import UserService.entity.User;
+import UserService.service.UserCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Общие сценарии API пользователей на реальном порту. Наследники задают стек через
+// spring.main.web-application-type: servlet (Spring MVC, JPA) или reactive (WebFlux, R2DBC), база одна.
+// Ответы проверяются в application/json, который оба контроллера отдают без ссылок HATEOAS
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+abstract class UserApiIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    protected UserDao userDao;
+
+    @Autowired
+    private UserCounter userCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        userDao.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_event_outbox");
+        userCounter.reconcile();
+        webTestClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    protected User saveUser(String name, String email, Integer age) {
+        return userDao.save(new User(name, email, age));
+    }
+
+    protected List<Map<String, Object>> outbox() {
+        return jdbcTemplate.queryForList("SELECT topic, message_key, payload FROM user_event_outbox ORDER BY id");
+    }
+
+    @Test
+    @DisplayName("API: POST /api/users - создание пользователя пишет событие и снимок в outbox в той же транзакции")
+    void createUser_ShouldReturnCreatedAndAppendOutbox() {
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("John Doe", "john@example.com", 30))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").exists()
+                .jsonPath("$.name").isEqualTo("John Doe")
+                .jsonPath("$.email").isEqualTo("john@example.com")
+                .jsonPath("$.age").isEqualTo(30);
+
+        User user = userDao.findByEmail("john@example.com").orElseThrow();
+        assertThat(userDao.count()).isEqualTo(1);
+        assertThat(outbox()).extracting(row -> row.get("topic"), row -> row.get("message_key"))
+                .containsExactly(
+                        tuple("user-events", String.valueOf(user.getId())),
+                        tuple("users-state", String.valueOf(user.getId())));
+        assertThat((String) outbox().get(0).get("payload")).contains("USER_CREATED");
+    }
+
+    @Test
+    @DisplayName("API: POST /api/users - создание пользователя с невалидными данными возвращает 400")
+    void createUser_WithInvalidData_ShouldReturnBadRequest() {
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("", "invalid-email", null))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertThat(userDao.count()).isZero();
+        assertThat(outbox()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("API: GET /api/users/{id} - получение пользователя по ID")
+    void getUserById_ShouldReturnUser() {
+        User saved = saveUser("John Doe", "john@example.com", 30);
+
+        webTestClient.get().uri("/api/users/{id}", saved.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(saved.getId())
+                .jsonPath("$.name").isEqualTo("John Doe")
+                .jsonPath("$.email").isEqualTo("john@example.com")
+                .jsonPath("$.age").isEqualTo(30)
+                .jsonPath("$._links").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("API: GET /api/users - страницы по курсору")
+    void getAllUsers_ShouldReturnPages() {
+        User first = saveUser("John Doe", "john@example.com", 30);
+        User second = saveUser("Jane Doe", "jane@example.com", 25);
+
+        webTestClient.get().uri("/api/users?limit=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1)
+                .jsonPath("$.users[0].id").isEqualTo(first.getId())
+                .jsonPath("$.nextCursor").isEqualTo(first.getId());
+
+        webTestClient.get().uri("/api/users?limit=1&after={after}", first.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users[0].id").isEqualTo(second.getId())
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("API: PUT /api/users/update/{id} - обновление пишет в outbox только изменившиеся поля")
+    void updateUser_ShouldReturnUpdatedUserAndAppendDelta() {
+        User saved = saveUser("John Doe", "john@example.com", 30);
+
+        webTestClient.put().uri("/api/users/update/{id}", saved.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateUserRequest("John Updated", "john@example.com", 31))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("John Updated")
+                .jsonPath("$.email").isEqualTo("john@example.com")
+                .jsonPath("$.age").isEqualTo(31);
+
+        assertThat(userDao.findById(saved.getId()).orElseThrow().getName()).isEqualTo("John Updated");
+        String payload = (String) outbox().get(0).get("payload");
+        assertThat(payload).contains("USER_UPDATED", "\"name\"", "\"age\"").doesNotContain("\"email\"");
+    }
+
+    @Test
+    @DisplayName("API: DELETE /api/users/delete/{id} - удаление пользователя")
+    void deleteUser_ShouldReturnNoContent() {
+        User saved = saveUser("John Doe", "john@example.com", null);
+
+        webTestClient.delete().uri("/api/users/delete/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThat(userDao.findById(saved.getId())).isEmpty();
+        assertThat((String) outbox().get(0).get("payload")).contains("USER_DELETED", "john@example.com");
+    }
+
+    @Test
+    @DisplayName("API: GET /api/users/search - поиск по части имени без учета регистра")
+    void searchUsersByName_ShouldReturnMatchingUsers() {
+        saveUser("John", "john@example.com", null);
+        saveUser("Jane", "jane@example.com", null);
+
+        webTestClient.get().uri("/api/users/search?name=joh")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1)
+                .jsonPath("$.users[0].name").isEqualTo("John");
+    }
+
+    @Test
+    @DisplayName("API: GET /api/users/count - количество учитывает создание через API")
+    void getUsersCount_ShouldReturnCount() {
+        for (int i = 0; i < 3; i++) {
+            saveUser("User " + i, "user" + i + "@example.com", null);
+        }
+        userCounter.reconcile();
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("User 3", "user3@example.com", null))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.get().uri("/api/users/count")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class).isEqualTo(4L);
+    }
+}
@@ -1,6 +1,5 @@
 package UserService.integration.controller;
 
-import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
 import UserService.entity.User;
 import UserService.dao.UserDao;
@@ -12,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -21,8 +21,6 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -33,6 +31,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.testcontainers.shaded.org.hamcrest.Matchers.containsString;
 
+// Поведение только servlet-стека: HAL, выгрузка и ошибки сервиса, которые MockMvc пробрасывает в тест.
+// Сценарии, общие с профилем reactive, в UserApiIntegrationTest
 @SpringBootTest
 @AutoConfigureMockMvc
 @Testcontainers
@@ -68,58 +68,6 @@ class UserControllerIntegrationTest {
         doNothing().when(userEventProducer).sendUserDeletedEvent(anyLong(), anyString(), anyString());
     }
 
-    @Test
-    @DisplayName("Controller: POST /api/users - Успешное создание пользователя")
-    void createUser_ShouldReturnCreatedStatus() throws Exception {
-        CreateUserRequest request = new CreateUserRequest();
-        request.setName("John Doe");
-        request.setEmail("john@example.com");
-        request.setAge(30);
-
-        mockMvc.perform(post("/api/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.id").exists())
-                .andExpect(jsonPath("$.name").value("John Doe"))
-                .andExpect(jsonPath("$.email").value("john@example.com"))
-                .andExpect(jsonPath("$.age").value(30));
-
-        List<User> users = userDao.findAll();
-        assertThat(users).hasSize(1);
-        assertThat(users.get(0).getEmail()).isEqualTo("john@example.com");
-    }
-
-    @Test
-    @DisplayName("Controller: POST /api/users - Создание пользователя с невалидными данными возвращает 400")
-    void createUser_WithInvalidData_ShouldReturnBadRequest() throws Exception {
-        CreateUserRequest invalidRequest = new CreateUserRequest();
-        invalidRequest.setName("");
-        invalidRequest.setEmail("invalid-email");
-
-        mockMvc.perform(post("/api/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalidRequest)))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    @DisplayName("Controller: GET /api/users/{id} - Успешное получение пользователя по ID")
-    void getUserById_ShouldReturnUser() throws Exception {
-        User user = new User();
-        user.setName("John Doe");
-        user.setEmail("john@example.com");
-        user.setAge(30);
-        User savedUser = userDao.save(user);
-
-        mockMvc.perform(get("/api/users/{id}", savedUser.getId()))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(savedUser.getId()))
-                .andExpect(jsonPath("$.name").value("John Doe"))
-                .andExpect(jsonPath("$.email").value("john@example.com"))
-                .andExpect(jsonPath("$.age").value(30));
-    }
-
     @Test
     @DisplayName("Controller: GET /api/users/{id} - Получение несуществующего пользователя возвращает ошибку")
     void getUserById_WithInvalidId_ShouldReturnError() throws Exception {
@@ -144,7 +92,7 @@ class UserControllerIntegrationTest {
         user2.setAge(25);
         userDao.save(user2);
 
-        mockMvc.perform(get("/api/users"))
+        mockMvc.perform(get("/api/users").accept(MediaTypes.HAL_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$._embedded.userResponseList.length()").value(2))
                 .andExpect(jsonPath("$._embedded.userResponseList[0].name").isString())
@@ -152,43 +100,24 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    @DisplayName("Controller: PUT /api/users/update/{id} - Успешное обновление пользователя")
-    void updateUser_ShouldReturnUpdatedUser() throws Exception {
-        User user = new User();
-        user.setName("John Doe");
-        user.setEmail("john@example.com");
-        user.setAge(30);
-        User savedUser = userDao.save(user);
-
-        UpdateUserRequest request = new UpdateUserRequest();
-        request.setName("John Updated");
-        request.setEmail("john.updated@example.com");
-        request.setAge(31);
+    @DisplayName("Controller: GET /api/users/{id} - application/json без ссылок, application/hal+json с ссылками")
+    void getUserById_ShouldNegotiateRepresentation() throws Exception {
+        User savedUser = userDao.save(new User("John Doe", "john@example.com", 30));
 
-        mockMvc.perform(put("/api/users/update/{id}", savedUser.getId())
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        String lean = mockMvc.perform(get("/api/users/{id}", savedUser.getId()).accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("John Updated"))
-                .andExpect(jsonPath("$.email").value("john.updated@example.com"))
-                .andExpect(jsonPath("$.age").value(31));
-
-        User updatedUser = userDao.findById(savedUser.getId()).orElseThrow();
-        assertThat(updatedUser.getName()).isEqualTo("John Updated");
-    }
-
-    @Test
-    @DisplayName("Controller: DELETE /api/users/delete/{id} - Успешное удаление пользователя")
-    void deleteUser_ShouldReturnNoContent() throws Exception {
-        User user = new User();
-        user.setName("John Doe");
-        user.setEmail("john@example.com");
-        User savedUser = userDao.save(user);
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$._links").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
 
-        mockMvc.perform(delete("/api/users/delete/{id}", savedUser.getId()))
-                .andExpect(status().isNoContent());
+        String hal = mockMvc.perform(get("/api/users/{id}", savedUser.getId()).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/users/" + savedUser.getId()))
+                .andReturn().getResponse().getContentAsString();
 
-        assertThat(userDao.findById(savedUser.getId())).isEmpty();
+        assertThat(lean.length()).isLessThan(hal.length());
     }
 
     @Test
@@ -201,26 +130,12 @@ class UserControllerIntegrationTest {
         userDao.flush();
 
         mockMvc.perform(get("/api/users/search")
-                        .param("name", "John"))
+                        .param("name", "John")
+                        .accept(MediaTypes.HAL_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$._embedded.userResponseList[0].name").value("John"));
     }
 
-    @Test
-    @DisplayName("Controller: GET /api/users/count - Успешное получение количества пользователей")
-    void getUsersCount_ShouldReturnCount() throws Exception {
-        for (int i = 0; i < 3; i++) {
-            User user = new User();
-            user.setName("User " + i);
-            user.setEmail("user" + i + "@example.com");
-            userDao.save(user);
-        }
-
-        mockMvc.perform(get("/api/users/count"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("3"));
-    }
-
     @Test
     @DisplayName("Controller: PUT /api/users/update/{id} - Обновление несуществующего пользователя возвращает ошибку")
     void updateUser_WithInvalidId_ShouldReturnError() {
@@ -239,4 +154,28 @@ class UserControllerIntegrationTest {
         assertTrue(exception.getMessage().contains("Request processing failed"));
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Controller: GET /api/users/export - Выгрузка всех пользователей в NDJSON и CSV")
+    void exportUsers_ShouldStreamAllRows() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail("export" + i + "@example.com");
+            user.setAge(20 + i);
+            userDao.save(user);
+        }
+
+        String ndjson = mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines()).hasSize(3);
+        assertThat(ndjson.lines().findFirst().orElseThrow()).contains("export0@example.com");
+
+        String csv = mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(csv.lines()).hasSize(4);
+        assertThat(csv.lines().findFirst().orElseThrow()).isEqualTo("id,name,email,age,created_at");
+    }
+
+}
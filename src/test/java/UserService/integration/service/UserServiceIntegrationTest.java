@@ -1,25 +1,47 @@
 package UserService.integration.service;
 
+import UserService.config.CacheConfig;
 import UserService.dao.UserDao;
+import UserService.dao.UserEventOutboxDao;
+import UserService.dao.UserEventOutboxDao.OutboxEvent;
+import UserService.dao.UserEventOutboxDao.OutboxStats;
+import UserService.dto.BulkCreateUserResult;
+import UserService.dto.BulkCreateUsersResponse;
 import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserImportResult;
+import UserService.dto.UserPage;
 import UserService.dto.UserResponse;
 import UserService.entity.User;
 import UserService.kafka.UserEventProducer;
+import UserService.service.UserBulkService;
+import UserService.service.UserCounter;
+import UserService.service.UserImportService;
 import UserService.service.UserService;
+import UserService.util.QueryRecorder;
+import UserService.util.QueryRecorderConfig;
+import UserService.util.TestDataFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +52,7 @@ import static org.mockito.Mockito.*;
 
 @SpringBootTest
 @Testcontainers
+@Import(QueryRecorderConfig.class)
 @DisplayName("Интеграционные тесты UserService с Testcontainers")
 class UserServiceIntegrationTest {
 
@@ -52,16 +75,49 @@ class UserServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserImportService userImportService;
+
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private UserCounter userCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserEventOutboxDao userEventOutboxDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    private TransactionTemplate transactionTemplate;
+
     @MockitoBean
     private UserEventProducer userEventProducer;
 
     @BeforeEach
     void setUp() {
         userDao.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_event_outbox");
         reset(userEventProducer);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryRecorder.stop();
     }
 
     @Test
@@ -132,6 +188,46 @@ class UserServiceIntegrationTest {
         assertThat(response.getEmail()).isEqualTo("maria@example.com");
     }
 
+    @Test
+    @DisplayName("Кэш пользователей: повторное чтение из кэша, обновление и удаление не оставляют устаревших данных")
+    void getUserById_shouldBeCachedAndKeptCoherentOnWrites() {
+
+        User user = new User();
+        user.setName("Кэшируемый Пользователь");
+        user.setEmail("cached@example.com");
+        user.setAge(35);
+        User savedUser = userDao.save(user);
+        Long id = savedUser.getId();
+        double hitsBefore = cacheHits();
+
+        userService.getUserById(id);
+        // Изменение в обход сервиса не видно, пока запись в кэше
+        savedUser.setName("Изменено Напрямую");
+        userDao.save(savedUser);
+        assertThat(userService.getUserById(id).getName()).isEqualTo("Кэшируемый Пользователь");
+        assertThat(cacheHits() - hitsBefore).isEqualTo(1);
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setAge(36);
+        userService.updateUser(id, request);
+        UserResponse afterUpdate = userService.getUserById(id);
+        assertThat(afterUpdate.getName()).isEqualTo("Изменено Напрямую");
+        assertThat(afterUpdate.getAge()).isEqualTo(36);
+
+        userService.deleteUser(id);
+        assertThatThrownBy(() -> userService.getUserById(id))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Ошибка при поиске пользователя");
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.USERS_CACHE)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
     @Test
     @DisplayName("Получение пользователя по ID: несуществующий ID должен выбрасывать исключение")
     void getUserById_nonExistentId_shouldThrowException() {
@@ -158,11 +254,37 @@ class UserServiceIntegrationTest {
         userDao.save(user1);
         userDao.save(user2);
 
-        List<UserResponse> users = userService.getAllUsers();
+        UserPage page = userService.getUsersPage(null, null);
 
-        assertThat(users).hasSize(2);
-        assertThat(users).extracting(UserResponse::getEmail)
-                .containsExactlyInAnyOrder("alex@example.com", "olga@example.com");
+        assertThat(page.getUsers()).hasSize(2);
+        assertThat(page.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("alex@example.com", "olga@example.com");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Получение пользователей постранично по курсору")
+    void getUsersPage_shouldWalkAllPagesByCursor() {
+
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setName("Пользователь " + i);
+            user.setEmail("page" + i + "@example.com");
+            user.setAge(20 + i);
+            userDao.save(user);
+        }
+
+        UserPage first = userService.getUsersPage(null, 2);
+        UserPage second = userService.getUsersPage(first.getNextCursor(), 2);
+        UserPage third = userService.getUsersPage(second.getNextCursor(), 2);
+
+        assertThat(first.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("page0@example.com", "page1@example.com");
+        assertThat(second.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("page2@example.com", "page3@example.com");
+        assertThat(third.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("page4@example.com");
+        assertThat(third.getNextCursor()).isNull();
     }
 
     @Test
@@ -249,13 +371,35 @@ class UserServiceIntegrationTest {
 
         userDao.save(user1);
 
-        List<UserResponse> results = userService.searchUsersByName("Иван Иванов");
+        List<UserResponse> results = userService.searchUsersByName("Иван Иванов", null, null).getUsers();
 
         assertThat(results).hasSize(1);
         assertThat(results).extracting(UserResponse::getName)
                 .containsExactlyInAnyOrder("Иван Иванов");
     }
 
+    @Test
+    @DisplayName("Поиск по подстроке имени без учета регистра, постранично")
+    void searchUsersByName_shouldMatchSubstringIgnoringCaseByPages() {
+
+        userDao.save(new User("Анна Петрова", "anna@example.com", 30));
+        userDao.save(new User("Пётр Иванов", "petr@example.com", 31));
+        userDao.save(new User("ПЕТРОВ Сергей", "sergey@example.com", 32));
+        userDao.save(new User("100% Петров", "percent@example.com", 33));
+
+        UserPage first = userService.searchUsersByName("петров", null, 2);
+        UserPage second = userService.searchUsersByName("петров", first.getNextCursor(), 2);
+
+        assertThat(first.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("anna@example.com", "sergey@example.com");
+        assertThat(second.getUsers()).extracting(UserResponse::getEmail)
+                .containsExactly("percent@example.com");
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(userService.searchUsersByName("0%", null, null).getUsers())
+                .extracting(UserResponse::getEmail)
+                .containsExactly("percent@example.com");
+    }
+
     @Test
     @DisplayName("Подсчет пользователей")
     void getUserCount_shouldReturnCorrectCount() {
@@ -267,12 +411,28 @@ class UserServiceIntegrationTest {
             user.setAge(20 + i);
             userDao.save(user);
         }
+        // Запись в обход сервиса попадает в счетчик только после сверки с базой
+        userCounter.reconcile();
 
         long count = userService.getUserCount();
 
         assertThat(count).isEqualTo(5);
     }
 
+    @Test
+    @DisplayName("Подсчет пользователей: счетчик следует за созданием и удалением без обращения к базе")
+    void getUserCount_shouldFollowCreatesAndDeletes() {
+
+        userCounter.reconcile();
+        UserResponse first = userService.createUser(new CreateUserRequest("Первый Счетный", "count1@example.com", 20));
+        userService.createUser(new CreateUserRequest("Второй Счетный", "count2@example.com", 21));
+        userBulkService.createUsers(List.of(new CreateUserRequest("Третий Счетный", "count3@example.com", 22)));
+        userService.deleteUser(first.getId());
+
+        assertThat(userService.getUserCount()).isEqualTo(2);
+        assertThat(userDao.count()).isEqualTo(2);
+    }
+
     @Test
     @DisplayName("Транзакционность: откат при ошибке в Kafka")
     void createUser_kafkaError_shouldRollbackTransaction() {
@@ -323,8 +483,218 @@ class UserServiceIntegrationTest {
         user.setAge(30);
         userDao.save(user);
 
-        List<UserResponse> results = userService.searchUsersByName("НесуществующееИмя");
+        List<UserResponse> results = userService.searchUsersByName("НесуществующееИмя", null, null).getUsers();
 
         assertThat(results).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Массовое создание: конфликт email не прерывает пакет")
+    void createUsersBulk_shouldInsertNewUsersAndReportDuplicates() {
+
+        User existing = new User();
+        existing.setName("Существующий");
+        existing.setEmail("exists@example.com");
+        existing.setAge(40);
+        userDao.save(existing);
+
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Новый Один", "new1@example.com", 21),
+                new CreateUserRequest("Дубликат", "exists@example.com", 22),
+                new CreateUserRequest("Новый Два", "new2@example.com", 23)
+        );
+
+        BulkCreateUsersResponse response = userBulkService.createUsers(requests);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getDuplicates()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(BulkCreateUserResult::getStatus)
+                .containsExactly(BulkCreateUserResult.Status.CREATED,
+                        BulkCreateUserResult.Status.DUPLICATE,
+                        BulkCreateUserResult.Status.CREATED);
+        assertThat(userDao.count()).isEqualTo(3);
+        verify(userEventProducer).sendUserCreatedEvents(argThat(users -> users.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Импорт CSV: валидные строки вставляются, невалидные и занятые email пропускаются")
+    void importCsv_shouldMergeValidRowsAndSkipTheRest() {
+
+        User existing = new User();
+        existing.setName("Существующий");
+        existing.setEmail("exists@example.com");
+        existing.setAge(40);
+        userDao.save(existing);
+
+        String csv = """
+                name,email,age
+                Анна Каренина,anna@example.com,28
+                "Толстой, Лев",leo@example.com,
+                Дубликат,exists@example.com,33
+                X,short-name@example.com,20
+                Без Почты,not-an-email,20
+                Старик,old@example.com,151
+                """;
+
+        UserImportResult result = userImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getTotal()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEqualTo(4);
+        assertThat(userDao.findByEmail("leo@example.com")).get()
+                .extracting(User::getName, User::getAge)
+                .containsExactly("Толстой, Лев", null);
+        assertThat(userDao.count()).isEqualTo(3);
+        // События импорта пишутся в outbox тем же запросом, что и пользователи
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT message_key FROM user_event_outbox WHERE topic = 'user-events' ORDER BY id", String.class))
+                .containsExactly(
+                        String.valueOf(userDao.findByEmail("anna@example.com").orElseThrow().getId()),
+                        String.valueOf(userDao.findByEmail("leo@example.com").orElseThrow().getId()));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT payload::json ->> 'eventType' FROM user_event_outbox WHERE topic = 'user-events' LIMIT 1",
+                String.class))
+                .isEqualTo("USER_CREATED");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM user_event_outbox WHERE topic = 'users-state' AND payload IS NULL", Long.class))
+                .isEqualTo(2);
+        verifyNoInteractions(userEventProducer);
+    }
+
+    @Test
+    @DisplayName("users-state: снимок читает текущее состояние при публикации, для удаленного пользователя - tombstone")
+    void stateSnapshots_shouldResolveCurrentStateAtRelayTime() {
+        User kept = userDao.save(TestDataFactory.createUserWithParams("Оставшийся", "kept@example.com", 30));
+        User deleted = userDao.save(TestDataFactory.createUserWithParams("Удаленный", "deleted@example.com", 40));
+
+        Long lastId = transactionTemplate.execute(status ->
+                userEventOutboxDao.appendSnapshots("users-state", 0, 10));
+        assertThat(lastId).isEqualTo(deleted.getId());
+        kept.setName("Переименованный");
+        userDao.save(kept);
+        userDao.deleteById(deleted.getId());
+
+        List<OutboxEvent> events = userEventOutboxDao.nextBatch(10);
+
+        assertThat(events).extracting(OutboxEvent::topic).containsOnly("users-state");
+        assertThat(events).extracting(OutboxEvent::key)
+                .containsExactly(String.valueOf(kept.getId()), String.valueOf(deleted.getId()));
+        assertThat(events.get(0).payload()).contains("\"name\" : \"Переименованный\"", "kept@example.com");
+        assertThat(events.get(1).payload()).isNull();
+        Long nextId = transactionTemplate.execute(status ->
+                userEventOutboxDao.appendSnapshots("users-state", deleted.getId(), 10));
+        assertThat(nextId).isNull();
+    }
+
+    @Test
+    @DisplayName("Outbox: блокировку relay держит только одна сессия и она снимается после порции")
+    void relayLock_shouldBeExclusiveAcrossSessions() {
+        Optional<Optional<Integer>> nested = userEventOutboxDao.withRelayLock(() ->
+                userEventOutboxDao.withRelayLock(() -> 1));
+
+        // Вложенный вызов берет другое соединение из пула, как relay соседней реплики
+        assertThat(nested).contains(Optional.empty());
+        assertThat(userEventOutboxDao.withRelayLock(() -> 1)).contains(1);
+    }
+
+    @Test
+    @DisplayName("Outbox: глубина и возраст самого старого события считаются по часам базы")
+    void outboxStats_shouldComputeAgeInDatabase() {
+        assertThat(userEventOutboxDao.stats()).isEqualTo(new OutboxStats(0, 0));
+        jdbcTemplate.update("INSERT INTO user_event_outbox (topic, message_key, created_at) "
+                + "VALUES ('users-state', '1', LOCALTIMESTAMP - INTERVAL '90 seconds'), ('users-state', '2', LOCALTIMESTAMP)");
+
+        OutboxStats stats = userEventOutboxDao.stats();
+
+        assertThat(stats.depth()).isEqualTo(2);
+        assertThat(stats.oldestAgeMillis()).isBetween(90_000L, 100_000L);
+    }
+
+    // Запросы к базе на операцию. UserEventProducer здесь заглушка, поэтому записи в outbox в списки не входят;
+    // SELECT nextval из последовательности не учитывается, см. QueryRecorder
+
+    @Test
+    @DisplayName("SQL: создание пользователя - один INSERT без предварительных чтений")
+    void createUser_shouldIssueSingleInsert() {
+        CreateUserRequest request = new CreateUserRequest("Иван Иванов", "ivan@example.com", 30);
+
+        queryRecorder.start();
+        userService.createUser(request);
+
+        assertThat(queryRecorder.shapes()).containsExactly("INSERT users");
+    }
+
+    @Test
+    @DisplayName("SQL: чтение по ID - один SELECT, повторное чтение из кэша без запросов")
+    void getUserById_shouldIssueSingleSelectThenHitCache() {
+        User saved = userDao.save(TestDataFactory.createUserWithParams("Мария Сидорова", "maria@example.com", 28));
+
+        queryRecorder.start();
+        userService.getUserById(saved.getId());
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users");
+
+        queryRecorder.start();
+        userService.getUserById(saved.getId());
+        assertThat(queryRecorder.shapes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("SQL: страница списка и поиск - по одному SELECT независимо от размера страницы")
+    void pages_shouldIssueSingleSelect() {
+        for (int i = 1; i <= 30; i++) {
+            userDao.save(TestDataFactory.createUserWithParams("Петров " + i, "petrov" + i + "@example.com", 20 + i));
+        }
+
+        queryRecorder.start();
+        UserPage page = userService.getUsersPage(null, 20);
+        assertThat(page.getUsers()).hasSize(20);
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users");
+
+        queryRecorder.start();
+        UserPage found = userService.searchUsersByName("петров", null, 20);
+        assertThat(found.getUsers()).hasSize(20);
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users");
+    }
+
+    @Test
+    @DisplayName("SQL: обновление пользователя - SELECT и UPDATE, занятость email проверяет уникальный индекс")
+    void updateUser_shouldIssueSelectAndUpdateOnly() {
+        User saved = userDao.save(TestDataFactory.createUserWithParams("Старое Имя", "old@example.com", 30));
+        userDao.save(TestDataFactory.createUserWithParams("Другой", "taken@example.com", 40));
+        UpdateUserRequest request = new UpdateUserRequest("Новое Имя", "new@example.com", 31);
+
+        queryRecorder.start();
+        userService.updateUser(saved.getId(), request);
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users", "UPDATE users");
+
+        queryRecorder.start();
+        assertThatThrownBy(() -> userService.updateUser(saved.getId(), new UpdateUserRequest(null, "taken@example.com", null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Новый email уже занят");
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users", "UPDATE users");
+        assertThat(userDao.findById(saved.getId())).get().extracting(User::getEmail).isEqualTo("new@example.com");
+    }
+
+    @Test
+    @DisplayName("SQL: удаление пользователя - SELECT и DELETE без повторного чтения")
+    void deleteUser_shouldIssueSelectAndDeleteOnly() {
+        User saved = userDao.save(TestDataFactory.createUserWithParams("Удаляемый", "delete-sql@example.com", 40));
+
+        queryRecorder.start();
+        userService.deleteUser(saved.getId());
+
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT users", "DELETE users");
+    }
+
+    @Test
+    @DisplayName("SQL: приблизительный подсчет читает только статистику планировщика")
+    void getUserCount_approximate_shouldReadStatisticsOnly() {
+        jdbcTemplate.execute("ANALYZE users");
+
+        queryRecorder.start();
+        userService.getUserCount(true);
+
+        assertThat(queryRecorder.shapes()).containsExactly("SELECT pg_class");
+    }
+}
@@ -0,0 +1,338 @@
+package UserService.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Нагрузочный прогон всего приложения: Postgres и Kafka в Testcontainers, relay outbox и инвалидация кэша включены.
+// Запуск: mvn test -Pload [-Dload.rate=300 -Dload.duration=60s -Dload.warmup=15s]
+//
+// Открытая модель нагрузки: запросы отправляются по расписанию с заданной частотой независимо от ответов,
+// а задержка считается от запланированного времени отправки. Поэтому медленный ответ не прячет очередь
+// за собой (coordinated omission). Результаты по каждому endpoint пишутся в target/load/results.json
+// и сравниваются с benchmarks/load-baseline.json: тест падает, если p99 вырос или пропускная способность упала
+// больше допуска (load.tolerance, по умолчанию 25%) или появились ошибки. Без базового прогона тест тоже падает.
+// Базовый прогон снимается на машине, где потом идут сравнения: -Dload.update-baseline=true сохраняет прогон
+// вместе с частотой и описанием машины (ядра, память, JVM), по которым видно, с чем сравнивается результат
+@Slf4j
+@Tag("load")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserApiLoadTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    static KafkaContainer kafka = new KafkaContainer("apache/kafka:3.8.0");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("user-service.outbox.relay.enabled", () -> "true");
+        registry.add("user-service.cache.invalidation.enabled", () -> "true");
+        registry.add("spring.cloud.config.enabled", () -> "false");
+        registry.add("eureka.client.enabled", () -> "false");
+    }
+
+    private static final int SEED_USERS = 20_000;
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Доли операций в смеси, в сумме 100
+    enum Operation {
+        CREATE("POST /api/users", 10),
+        GET("GET /api/users/{id}", 40),
+        LIST("GET /api/users", 20),
+        SEARCH("GET /api/users/search", 15),
+        UPDATE("PUT /api/users/update/{id}", 10),
+        DELETE("DELETE /api/users/delete/{id}", 5);
+
+        final String endpoint;
+        final int weight;
+
+        Operation(String endpoint, int weight) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+        }
+
+        static Operation pick(int roll) {
+            for (Operation operation : values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return GET;
+        }
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong emails = new AtomicLong();
+    // Удаляются только пользователи, созданные самим прогоном, чтобы чтения по id не превращались в 404
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+    private long minId;
+    private long maxId;
+
+    @Test
+    @DisplayName("Load: смешанная нагрузка CRUD и поиска с задержками по endpoint и сравнением с базовым прогоном")
+    void mixedWorkload() throws Exception {
+        int rate = Integer.getInteger("load.rate", 200);
+        Duration warmup = Duration.parse("PT" + System.getProperty("load.warmup", "15s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration", "60s"));
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+        Path results = Path.of(System.getProperty("load.results", "target/load/results.json"));
+        Path baseline = Path.of(System.getProperty("load.baseline", "benchmarks/load-baseline.json"));
+
+        seed();
+        run(rate, warmup);
+        Map<Operation, Stats> stats = run(rate, duration);
+
+        log.info(String.format("%-32s %8s %10s %10s %10s %10s %10s %8s", "endpoint", "count", "req/s",
+                "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        stats.forEach((operation, s) -> log.info(String.format("%-32s %8d %10.1f %10.2f %10.2f %10.2f %10.2f %8d",
+                operation.endpoint, s.count(), s.throughput(), s.p50(), s.p99(), s.p999(), s.max(), s.errors())));
+
+        ObjectNode current = toJson(rate, stats);
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(results.toFile(), current);
+
+        List<String> regressions = new ArrayList<>();
+        stats.forEach((operation, s) -> {
+            if (s.errors() > 0) {
+                regressions.add(operation.endpoint + ": ошибок " + s.errors());
+            }
+        });
+        if (Files.exists(baseline)) {
+            JsonNode base = OBJECT_MAPPER.readTree(baseline.toFile());
+            if (base.path("rate").asInt() != rate) {
+                log.warn("Базовый прогон снят с другой частотой ({} против {}), сравнение может быть некорректным",
+                        base.path("rate").asInt(), rate);
+            }
+            if (!base.path("hardware").equals(current.path("hardware"))) {
+                log.warn("Базовый прогон снят на другой машине ({} против {}), сравнение может быть некорректным",
+                        base.path("hardware"), current.path("hardware"));
+            }
+            stats.forEach((operation, s) -> {
+                JsonNode endpoint = base.path("endpoints").path(operation.endpoint);
+                if (endpoint.isMissingNode()) {
+                    return;
+                }
+                double baseP99 = endpoint.path("p99").asDouble();
+                if (s.p99() > baseP99 * (1 + tolerance)) {
+                    regressions.add(String.format("%s: p99 %.2f ms, в базовом прогоне %.2f ms", operation.endpoint, s.p99(), baseP99));
+                }
+                double baseThroughput = endpoint.path("throughput").asDouble();
+                if (s.throughput() < baseThroughput * (1 - tolerance)) {
+                    regressions.add(String.format("%s: %.1f req/s, в базовом прогоне %.1f req/s",
+                            operation.endpoint, s.throughput(), baseThroughput));
+                }
+            });
+        } else if (!Boolean.getBoolean("load.update-baseline")) {
+            regressions.add("базовый прогон " + baseline + " не найден, сохраните его с -Dload.update-baseline=true");
+        }
+        if (Boolean.getBoolean("load.update-baseline")) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Базовый прогон обновлен: {}", baseline);
+        }
+
+        assertThat(regressions).as("Регрессии относительно %s", baseline).isEmpty();
+    }
+
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, age, created_at)
+                SELECT nextval('users_seq'), 'User ' || g, 'seed' || g || '@example.com', 18 + g % 60, LOCALTIMESTAMP
+                FROM generate_series(1, ?) g
+                ON CONFLICT (email) DO NOTHING
+                """, SEED_USERS);
+        jdbcTemplate.execute("ANALYZE users");
+        minId = jdbcTemplate.queryForObject("SELECT min(id) FROM users", Long.class);
+        maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class);
+    }
+
+    private Map<Operation, Stats> run(int rate, Duration duration) throws InterruptedException {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY, 3));
+            errors.put(operation, new AtomicLong());
+        }
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toSeconds() * rate;
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long intendedStart = start + i * interval;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = Operation.pick(ThreadLocalRandom.current().nextInt(100));
+                workers.submit(() -> {
+                    boolean ok;
+                    try {
+                        ok = execute(operation);
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    histograms.get(operation).recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_LATENCY));
+                    if (!ok) {
+                        errors.get(operation).incrementAndGet();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        histograms.forEach((operation, histogram) -> stats.put(operation, new Stats(
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                errors.get(operation).get())));
+        return stats;
+    }
+
+    // 404 на чтение и обновление не считается ошибкой: пользователь мог быть удален в этом же прогоне
+    private boolean execute(Operation operation) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case CREATE -> create();
+            case GET -> success(send(get("/api/users/" + random.nextLong(minId, maxId + 1))), 404);
+            case LIST -> success(send(get("/api/users?after=" + random.nextLong(minId, maxId + 1) + "&limit=20")));
+            case SEARCH -> success(send(get("/api/users/search?name=User%20" + random.nextInt(1, 1000) + "&limit=20")));
+            case UPDATE -> success(send(HttpRequest.newBuilder(uri("/api/users/update/" + random.nextLong(minId, maxId + 1)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":" + random.nextInt(18, 90) + "}"))
+                    .build()), 404);
+            case DELETE -> {
+                Long id = created.poll();
+                yield id == null ? create() : success(send(HttpRequest.newBuilder(uri("/api/users/delete/" + id))
+                        .DELETE()
+                        .build()));
+            }
+        };
+    }
+
+    private boolean create() throws Exception {
+        long n = emails.incrementAndGet();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"Load User " + n + "\",\"email\":\"load" + n + "@example.com\",\"age\":30}"))
+                .build());
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        created.add(OBJECT_MAPPER.readTree(response.body()).path("id").asLong());
+        return true;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean success(HttpResponse<String> response, int... allowed) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        for (int code : allowed) {
+            if (status == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static ObjectNode toJson(int rate, Map<Operation, Stats> stats) {
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        root.put("rate", rate);
+        root.putObject("hardware")
+                .put("processors", Runtime.getRuntime().availableProcessors())
+                .put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024))
+                .put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"))
+                .put("java", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        ObjectNode endpoints = root.putObject("endpoints");
+        stats.forEach((operation, s) -> endpoints.putObject(operation.endpoint)
+                .put("count", s.count())
+                .put("throughput", s.throughput())
+                .put("p50", s.p50())
+                .put("p99", s.p99())
+                .put("p999", s.p999())
+                .put("max", s.max())
+                .put("errors", s.errors()));
+        return root;
+    }
+
+    private record Stats(long count, double throughput, double p50, double p99, double p999, double max, long errors) {
+    }
+}
@@ -0,0 +1,66 @@
+package UserService.unit.config;
+
+import UserService.config.BoundedDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class BoundedDataSourceTest {
+
+    private DataSource target;
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new BoundedDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("DB: соединений выдается не больше размера пула, закрытие возвращает разрешение один раз")
+    void getConnection_shouldBoundConcurrentConnections() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertThat(dataSource.available()).isZero();
+
+        first.close();
+        first.close();
+        assertThat(dataSource.available()).isEqualTo(1);
+
+        Connection third = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        second.close();
+        third.close();
+        assertThat(dataSource.available()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("DB: вызовы передаются соединению пула, ошибка получения соединения не занимает разрешение")
+    void getConnection_shouldDelegateAndReleaseOnFailure() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+
+        Connection pooled = ((ConnectionProxy) connection).getTargetConnection();
+        verify(pooled).setAutoCommit(false);
+        connection.close();
+        verify(pooled).close();
+
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThat(dataSource.available()).isEqualTo(2);
+    }
+}
@@ -1,28 +1,49 @@
 package UserService.unit.controller;
 
 import UserService.Controller.UserController;
+import UserService.Controller.UserLinks;
+import UserService.config.RequestPhaseMetrics;
+import UserService.config.ResponseSerializationMetrics;
+import UserService.dto.BulkCreateUserResult;
+import UserService.dto.BulkCreateUsersResponse;
 import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserImportResult;
+import UserService.dto.UserPage;
 import UserService.dto.UserResponse;
+import UserService.dto.UserSuggestion;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserBulkService;
+import UserService.service.UserExportService;
+import UserService.service.UserImportService;
 import UserService.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +57,26 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserExportService userExportService;
+
+    @Mock
+    private UserBulkService userBulkService;
+
+    @Mock
+    private UserImportService userImportService;
+
+    @Mock
+    private UserAutocompleteIndex userAutocompleteIndex;
+
+    @Spy
+    private UserLinks userLinks = new UserLinks();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private RequestPhaseMetrics requestPhaseMetrics = new RequestPhaseMetrics(meterRegistry);
+
     @InjectMocks
     private UserController userController;
 
@@ -47,7 +88,11 @@ class UserControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        ResponseSerializationMetrics serializationMetrics = new ResponseSerializationMetrics(requestPhaseMetrics);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(serializationMetrics)
+                .addInterceptors(serializationMetrics)
+                .build();
         objectMapper = new ObjectMapper();
 
         testUserResponse = new UserResponse();
@@ -98,6 +143,43 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Controller: POST /api/users/bulk - Массовое создание возвращает результат по каждому элементу")
+    void createUsersBulk_ShouldReturnPerItemResults() throws Exception {
+        BulkCreateUsersResponse bulkResponse = new BulkCreateUsersResponse(1, 1, 0, 0, List.of(
+                new BulkCreateUserResult(0, BulkCreateUserResult.Status.CREATED, 1L, "john@example.com", null),
+                new BulkCreateUserResult(1, BulkCreateUserResult.Status.DUPLICATE, null, "john@example.com", "Email повторяется в запросе")
+        ));
+        when(userBulkService.createUsers(anyList())).thenReturn(bulkResponse);
+
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testCreateRequest, testCreateRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE"));
+
+        verify(userBulkService, times(1)).createUsers(anyList());
+    }
+
+    @Test
+    @DisplayName("Controller: POST /api/users/import - Импорт CSV возвращает итоги")
+    void importUsers_ShouldReturnImportSummary() throws Exception {
+        when(userImportService.importCsv(any())).thenReturn(new UserImportResult(3, 2, 1));
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("name,email,age\nJohn,john@example.com,30\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.skipped").value(1));
+
+        verify(userImportService, times(1)).importCsv(any());
+    }
+
     @Test
     @DisplayName("Controller: GET /api/users/{id} - Успешное получение пользователя по ID")
     void getUserById_ShouldReturnUser() throws Exception {
@@ -138,15 +220,82 @@ class UserControllerTest {
         secondUser.setAge(25);
         users.add(secondUser);
 
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsersPage(null, null)).thenReturn(new UserPage(users, null));
 
-        mockMvc.perform(get("/api/users"))
+        mockMvc.perform(get("/api/users").accept(MediaTypes.HAL_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content.length()").value(2))
                 .andExpect(jsonPath("$.content[0].id").value(1L))
-                .andExpect(jsonPath("$.content[1].id").value(2L));
+                .andExpect(jsonPath("$.content[1].id").value(2L))
+                .andExpect(jsonPath("$.links[?(@.rel == 'next')]").isEmpty());
+
+        verify(userService, times(1)).getUsersPage(null, null);
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users?after={id}&limit={n} - Ссылка на следующую страницу")
+    void getAllUsers_WithMorePages_ShouldReturnNextLink() throws Exception {
+        when(userService.getUsersPage(0L, 1)).thenReturn(new UserPage(List.of(testUserResponse), 1L));
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", "0")
+                        .param("limit", "1")
+                        .accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.links[?(@.rel == 'next')].href").value("http://localhost/api/users?after=1&limit=1"));
+
+        verify(userService, times(1)).getUsersPage(0L, 1);
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users - По умолчанию страница без ссылок, курсор в nextCursor")
+    void getAllUsers_WithoutHalAccept_ShouldReturnLeanPage() throws Exception {
+        when(userService.getUsersPage(0L, 1)).thenReturn(new UserPage(List.of(testUserResponse), 1L));
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", "0")
+                        .param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.users[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value(1L))
+                .andExpect(jsonPath("$.links").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/{id} - Ссылки только по запросу application/hal+json")
+    void getUserById_ShouldNegotiateHal() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+
+        mockMvc.perform(get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.links").doesNotExist());
 
-        verify(userService, times(1)).getAllUsers();
+        mockMvc.perform(get("/api/users/{id}", 1L).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.links[?(@.rel == 'self')].href").value("http://localhost/api/users/1"));
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/{id} - HAL выбирается по Accept с учетом q")
+    void getUserById_ShouldRespectAcceptQuality() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.ACCEPT, "application/json, application/hal+json;q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.links").doesNotExist());
+
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.ACCEPT, "application/hal+json, application/json;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$.links[?(@.rel == 'self')].href").value("http://localhost/api/users/1"));
     }
 
     @Test
@@ -188,27 +337,59 @@ class UserControllerTest {
         List<UserResponse> searchResults = new ArrayList<>();
         searchResults.add(testUserResponse);
 
-        when(userService.searchUsersByName("John")).thenReturn(searchResults);
+        when(userService.searchUsersByName("John", null, null)).thenReturn(new UserPage(searchResults, null));
 
         mockMvc.perform(get("/api/users/search")
-                        .param("name", "John"))
+                        .param("name", "John")
+                        .accept(MediaTypes.HAL_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content.length()").value(1))
-                .andExpect(jsonPath("$.content[0].name").value("John Doe"));
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.links[?(@.rel == 'next')]").isEmpty());
 
-        verify(userService, times(1)).searchUsersByName("John");
+        verify(userService, times(1)).searchUsersByName("John", null, null);
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/autocomplete?prefix={prefix} - Подсказки из индекса")
+    void autocomplete_ShouldReturnSuggestions() throws Exception {
+        when(userAutocompleteIndex.suggest("jo", 5))
+                .thenReturn(List.of(new UserSuggestion(1L, "John Doe", "john@example.com")));
+
+        mockMvc.perform(get("/api/users/autocomplete")
+                        .param("prefix", "jo")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].email").value("john@example.com"));
+
+        verifyNoInteractions(userService);
     }
 
     @Test
     @DisplayName("Controller: GET /api/users/count - Успешное получение количества пользователей")
     void getUsersCount_ShouldReturnCount() throws Exception {
-        when(userService.getUserCount()).thenReturn(10L);
+        when(userService.getUserCount(false)).thenReturn(10L);
 
         mockMvc.perform(get("/api/users/count"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("10"));
 
-        verify(userService, times(1)).getUserCount();
+        verify(userService, times(1)).getUserCount(false);
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/count?approximate=true - Оценка количества пользователей")
+    void getUsersCount_Approximate_ShouldReturnEstimate() throws Exception {
+        when(userService.getUserCount(true)).thenReturn(9_998L);
+
+        mockMvc.perform(get("/api/users/count")
+                        .param("approximate", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("9998"));
+
+        verify(userService, times(1)).getUserCount(true);
     }
 
     @Test
@@ -226,4 +407,59 @@ class UserControllerTest {
 
         verify(userService, times(1)).updateUser(eq(999L), any(UpdateUserRequest.class));
     }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/export - Потоковая выгрузка в NDJSON")
+    void exportUsers_ShouldStreamNdjson() throws Exception {
+        when(userExportService.exportNdjson(any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n".getBytes());
+            return 1L;
+        });
+
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+
+        verify(userExportService, times(1)).exportNdjson(any());
+        verify(userExportService, never()).exportCsv(any());
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/export?format=csv - Потоковая выгрузка в CSV")
+    void exportUsers_WithCsvFormat_ShouldStreamCsv() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"));
+
+        verify(userExportService, times(1)).exportCsv(any());
+    }
+
+    @Test
+    @DisplayName("Controller: GET /api/users/export?format=xml - Неподдерживаемый формат возвращает 400")
+    void exportUsers_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userExportService);
+    }
+
+    @Test
+    @DisplayName("Controller: фазы запроса - ссылки HAL и сериализация ответа учитываются по endpoint")
+    void getUserById_ShouldRecordLinksAndSerializationPhases() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.get(RequestPhaseMetrics.TIMER)
+                .tags("endpoint", "GET /api/users/{id}", "phase", RequestPhaseMetrics.LINKS).timer().count());
+        assertEquals(2, meterRegistry.get(RequestPhaseMetrics.TIMER)
+                .tags("endpoint", "GET /api/users/{id}", "phase", RequestPhaseMetrics.SERIALIZATION).timer().count());
+        assertNull(meterRegistry.find(RequestPhaseMetrics.TIMER).tag("endpoint", "none").timer());
+    }
 }
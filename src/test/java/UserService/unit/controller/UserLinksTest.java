@@ -0,0 +1,69 @@
+package UserService.unit.controller;
+
+import UserService.Controller.UserController;
+import UserService.Controller.UserLinks;
+import UserService.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+class UserLinksTest {
+
+    private final UserLinks userLinks = new UserLinks();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static void bindRequest(String scheme, String host, int port) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setScheme(scheme);
+        request.setServerName(host);
+        request.setServerPort(port);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    // Прежняя сборка ссылок строки списка
+    private static EntityModel<UserResponse> linkToMethodOn(UserResponse user) {
+        EntityModel<UserResponse> resource = EntityModel.of(user);
+        resource.add(linkTo(methodOn(UserController.class).getUserByIdHal(user.getId())).withSelfRel());
+        resource.add(linkTo(methodOn(UserController.class).updateUserHal(user.getId(), null)).withRel("update"));
+        resource.add(Link.of(linkTo(UserController.class).slash("delete").slash(user.getId()).toString(), "delete"));
+        return resource;
+    }
+
+    @Test
+    @DisplayName("Links: ссылки из шаблонов совпадают с linkTo(methodOn(...)) символ в символ")
+    void item_shouldMatchLinkToMethodOn() throws Exception {
+        bindRequest("https", "users.example.com", 8443);
+        UserResponse user = new UserResponse(42L, "John Doe", "john@example.com", 30);
+
+        String expected = objectMapper.writeValueAsString(linkToMethodOn(user));
+        String actual = objectMapper.writeValueAsString(userLinks.base().item(user));
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).contains("https://users.example.com:8443/api/users/update/42");
+    }
+
+    @Test
+    @DisplayName("Links: базовый URI берется из текущего запроса, а не из запроса при старте")
+    void base_shouldFollowCurrentRequest() {
+        bindRequest("http", "localhost", 80);
+        assertThat(userLinks.base().self(1L).getHref()).isEqualTo("http://localhost/api/users/1");
+
+        bindRequest("http", "gateway", 8080);
+        assertThat(userLinks.base().delete(1L).getHref()).isEqualTo("http://gateway:8080/api/users/delete/1");
+    }
+}
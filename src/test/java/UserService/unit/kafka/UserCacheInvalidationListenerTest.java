@@ -0,0 +1,127 @@
+package UserService.unit.kafka;
+
+import UserService.config.CacheConfig;
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import UserService.kafka.UserCacheInvalidationListener;
+import UserService.kafka.UserEventCodecs;
+import UserService.service.UserAutocompleteIndex;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class UserCacheInvalidationListenerTest {
+
+    private Cache cache;
+    private UserAutocompleteIndex userAutocompleteIndex;
+    private UserCacheInvalidationListener listener;
+    private UserEventCodecs userEventCodecs;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USERS_CACHE);
+        cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        cache.put(1L, "cached");
+        cache.put(2L, "cached");
+        userAutocompleteIndex = mock(UserAutocompleteIndex.class);
+        userEventCodecs = new UserEventCodecs("avro");
+        listener = new UserCacheInvalidationListener(cacheManager, userAutocompleteIndex, userEventCodecs);
+    }
+
+    private static ConsumerRecord<String, byte[]> json(String payload) {
+        return new ConsumerRecord<>("user-events", 0, 0, null, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ConsumerRecord<String, byte[]> avro(UserEventMessage message) throws Exception {
+        ProducerRecord<String, byte[]> record = userEventCodecs.toRecord("user-events", message.getUserEmail(), message);
+        ConsumerRecord<String, byte[]> consumed = new ConsumerRecord<>("user-events", 0, 0, record.key(), record.value());
+        record.headers().forEach(consumed.headers()::add);
+        return consumed;
+    }
+
+    @Test
+    @DisplayName("Cache: событие обновления сбрасывает только запись этого пользователя")
+    void onUserEvent_updated_shouldEvictUser() {
+        listener.onUserEvent(json("{\"eventType\":\"USER_UPDATED\",\"userId\":1,\"userName\":\"Anna\",\"userEmail\":\"a@example.com\"}"));
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        verify(userAutocompleteIndex).put(1L, "Anna", "a@example.com");
+    }
+
+    @Test
+    @DisplayName("Cache: событие с изменениями обновляет в индексе только изменившиеся поля")
+    void onUserEvent_updatedDelta_shouldApplyChangedFields() throws Exception {
+        listener.onUserEvent(avro(UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(1L)
+                .changes(Map.of("email", new UserFieldChange("a@example.com", "anna@example.com"),
+                        "age", new UserFieldChange("30", "31")))
+                .build()));
+
+        assertNull(cache.get(1L));
+        verify(userAutocompleteIndex).update(1L, null, "anna@example.com");
+    }
+
+    @Test
+    @DisplayName("Cache: изменение возраста сбрасывает кэш, но не трогает индекс")
+    void onUserEvent_updatedAgeOnly_shouldNotTouchIndex() throws Exception {
+        listener.onUserEvent(avro(UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(1L)
+                .changes(Map.of("age", new UserFieldChange("30", "31")))
+                .build()));
+
+        assertNull(cache.get(1L));
+        verifyNoInteractions(userAutocompleteIndex);
+    }
+
+    @Test
+    @DisplayName("Cache: событие удаления сбрасывает запись пользователя")
+    void onUserEvent_deleted_shouldEvictUser() throws Exception {
+        listener.onUserEvent(avro(UserEventMessage.builder().eventType("USER_DELETED").userId(2L).build()));
+
+        assertNull(cache.get(2L));
+        verify(userAutocompleteIndex).remove(2L);
+    }
+
+    @Test
+    @DisplayName("Cache: событие создания без данных и некорректные сообщения не трогают кэш и индекс")
+    void onUserEvent_createdOrMalformed_shouldKeepCache() {
+        listener.onUserEvent(json("{\"eventType\":\"USER_CREATED\",\"userId\":1}"));
+        assertDoesNotThrow(() -> listener.onUserEvent(json("not json")));
+        listener.onUserEvent(json("{\"userId\":1}"));
+
+        assertNotNull(cache.get(1L));
+        verify(userAutocompleteIndex, never()).put(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Cache: события с неизвестным типом в заголовке пропускаются без разбора значения")
+    void onUserEvent_unhandledTypeHeader_shouldSkipPayload() {
+        ConsumerRecord<String, byte[]> record = json("not json");
+        record.headers().add(UserEventCodecs.EVENT_TYPE_HEADER, "USER_EXPORTED".getBytes(StandardCharsets.UTF_8));
+
+        listener.onUserEvent(record);
+
+        assertNotNull(cache.get(1L));
+        verify(userAutocompleteIndex, never()).remove(anyLong());
+    }
+}
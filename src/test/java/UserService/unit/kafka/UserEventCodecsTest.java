@@ -0,0 +1,147 @@
+package UserService.unit.kafka;
+
+import UserService.dto.UserEventMessage;
+import UserService.dto.UserFieldChange;
+import UserService.kafka.AvroUserEventCodec;
+import UserService.kafka.JsonUserEventCodec;
+import UserService.kafka.UserEventCodec;
+import UserService.kafka.UserEventCodecs;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserEventCodecsTest {
+
+    private static final UserEventMessage MESSAGE = UserEventMessage.builder()
+            .eventType("USER_UPDATED")
+            .userId(42L)
+            .userName("Иван Петров")
+            .userEmail("ivan@example.com")
+            .timestamp("2025-03-01T12:30:45.123")
+            .build();
+
+    @Test
+    @DisplayName("Events: Avro сохраняет поля события и время с точностью до миллисекунд")
+    void avro_roundTrip_shouldKeepFields() throws IOException {
+        AvroUserEventCodec codec = new AvroUserEventCodec();
+
+        UserEventMessage decoded = codec.decode(codec.encode(MESSAGE));
+
+        assertEquals(MESSAGE, decoded);
+        UserEventMessage micros = UserEventMessage.builder()
+                .eventType("USER_CREATED")
+                .userId(1L)
+                .timestamp("2025-03-01T12:30:45.123456")
+                .build();
+        assertEquals("2025-03-01T12:30:45.123", codec.decode(codec.encode(micros)).getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Events: Avro хранит время события как момент времени с учетом часового пояса JVM")
+    void avro_timestamp_shouldBeInstantInSystemZone() throws IOException {
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Moscow"));
+            Schema v3;
+            try (InputStream in = getClass().getResourceAsStream("/avro/user-event-v3.avsc")) {
+                v3 = new Schema.Parser().parse(in);
+            }
+            AvroUserEventCodec codec = new AvroUserEventCodec();
+            byte[] payload = codec.encode(MESSAGE);
+
+            GenericRecord record = new BinaryMessageDecoder<GenericRecord>(GenericData.get(), v3).decode(payload);
+            assertEquals(Instant.parse("2025-03-01T09:30:45.123Z").toEpochMilli(), record.get("timestamp"));
+            assertEquals(MESSAGE.getTimestamp(), codec.decode(payload).getTimestamp());
+
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            assertEquals("2025-03-01T09:30:45.123", codec.decode(payload).getTimestamp());
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    @DisplayName("Events: изменения из USER_UPDATED сохраняются в обоих форматах")
+    void roundTrip_shouldKeepChanges() throws IOException {
+        UserEventMessage updated = UserEventMessage.builder()
+                .eventType("USER_UPDATED")
+                .userId(42L)
+                .changes(Map.of("email", new UserFieldChange("old@example.com", "new@example.com"),
+                        "age", new UserFieldChange(null, "30")))
+                .build();
+
+        for (UserEventCodec codec : List.of(new JsonUserEventCodec(), new AvroUserEventCodec())) {
+            assertEquals(updated, codec.decode(codec.encode(updated)));
+        }
+    }
+
+    @Test
+    @DisplayName("Events: сообщения, записанные первой версией схемы Avro, читаются текущей")
+    void avro_shouldReadPreviousSchemaVersion() throws IOException {
+        Schema v1;
+        try (InputStream in = getClass().getResourceAsStream("/avro/user-event-v1.avsc")) {
+            v1 = new Schema.Parser().parse(in);
+        }
+        GenericRecord record = new GenericData.Record(v1);
+        record.put("eventType", new GenericData.EnumSymbol(v1.getField("eventType").schema(), "USER_CREATED"));
+        record.put("userId", 7L);
+        record.put("userEmail", "old@example.com");
+        ByteBuffer buffer = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(record);
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+
+        UserEventMessage decoded = new AvroUserEventCodec().decode(payload);
+
+        assertEquals("USER_CREATED", decoded.getEventType());
+        assertEquals(7L, decoded.getUserId());
+        assertEquals("old@example.com", decoded.getUserEmail());
+        assertNull(decoded.getChanges());
+    }
+
+    @Test
+    @DisplayName("Events: Avro заметно компактнее JSON")
+    void avro_shouldBeSmallerThanJson() throws IOException {
+        int json = new JsonUserEventCodec().encode(MESSAGE).length;
+        int avro = new AvroUserEventCodec().encode(MESSAGE).length;
+
+        assertThat(avro).isLessThan(json / 2);
+    }
+
+    @Test
+    @DisplayName("Events: заголовки содержат тип события и формат, а чтение выбирает формат по заголовку")
+    void toRecord_shouldAddHeadersAndDecodeByContentType() throws IOException {
+        UserEventCodecs avro = new UserEventCodecs("avro");
+        UserEventCodecs json = new UserEventCodecs("json");
+
+        ProducerRecord<String, byte[]> record = avro.toRecord("user-events", "42", MESSAGE);
+
+        assertEquals("USER_UPDATED", UserEventCodecs.eventType(record.headers()));
+        assertEquals(MESSAGE, json.decode(record.headers(), record.value()));
+        // Сообщения без заголовка формата считаются JSON
+        assertEquals(MESSAGE, avro.decode(new RecordHeaders(),
+                new JsonUserEventCodec().encode(MESSAGE)));
+        assertThrows(IOException.class, () -> json.decode(new RecordHeaders().add(UserEventCodecs.CONTENT_TYPE_HEADER,
+                "application/xml".getBytes(StandardCharsets.UTF_8)), new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new UserEventCodecs("xml"));
+    }
+}
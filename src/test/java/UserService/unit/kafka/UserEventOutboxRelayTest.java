@@ -0,0 +1,184 @@
+package UserService.unit.kafka;
+
+import UserService.dao.UserEventOutboxDao;
+import UserService.dao.UserEventOutboxDao.OutboxEvent;
+import UserService.dao.UserEventOutboxDao.OutboxStats;
+import UserService.dto.UserEventMessage;
+import UserService.kafka.AvroUserEventCodec;
+import UserService.kafka.UserEventCodecs;
+import UserService.kafka.UserEventOutboxRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventOutboxRelayTest {
+
+    private static final String PAYLOAD =
+            "{\"eventType\":\"USER_CREATED\",\"userId\":%d,\"userName\":\"User\",\"userEmail\":\"%s\"}";
+
+    @Mock
+    private UserEventOutboxDao outboxDao;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final UserEventCodecs userEventCodecs = new UserEventCodecs("avro");
+    private MeterRegistry meterRegistry;
+    private UserEventOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new UserEventOutboxRelay(outboxDao, kafkaTemplate, userEventCodecs, 3, Duration.ofSeconds(1), meterRegistry);
+        // Блокировка relay свободна: работа выполняется сразу
+        lenient().when(outboxDao.withRelayLock(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(invocation.<Supplier<?>>getArgument(0).get()));
+    }
+
+    private static OutboxEvent event(long id) {
+        return new OutboxEvent(id, "user-events", String.valueOf(id), PAYLOAD.formatted(id, "user" + id + "@example.com"));
+    }
+
+    @Test
+    @DisplayName("Outbox: отправленная порция удаляется целиком")
+    void relayBatch_allSent_shouldDeleteBatch() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of(event(1), event(2)));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(null));
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(2, relayed);
+        assertEquals(2, meterRegistry.get("user.events.outbox.relayed").counter().count());
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+                "user-events".equals(record.topic())
+                        && "1".equals(record.key())
+                        && "USER_CREATED".equals(UserEventCodecs.eventType(record.headers()))
+                        && decode(record).getUserId() == 1L));
+        verify(outboxDao).delete(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Outbox: событие публикуется в выбранном формате с типом и форматом в заголовках")
+    void relayBatch_shouldPublishConfiguredFormatWithHeaders() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of(event(1)));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relayBatch();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+                AvroUserEventCodec.CONTENT_TYPE.equals(new String(
+                        record.headers().lastHeader(UserEventCodecs.CONTENT_TYPE_HEADER).value()))
+                        && "user1@example.com".equals(decode(record).getUserEmail())));
+    }
+
+    @Test
+    @DisplayName("Outbox: снимок users-state публикуется как есть, а снимок удаленного пользователя - как tombstone")
+    void relayBatch_stateSnapshots_shouldPublishValueOrTombstone() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of(
+                new OutboxEvent(1L, "users-state", "5", "{\"id\":5,\"name\":\"User\"}"),
+                new OutboxEvent(2L, "users-state", "6", null)));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relayBatch();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+                "users-state".equals(record.topic()) && "5".equals(record.key())
+                        && "{\"id\":5,\"name\":\"User\"}".equals(new String(record.value()))));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+                "users-state".equals(record.topic()) && "6".equals(record.key()) && record.value() == null));
+        verify(outboxDao).delete(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Outbox: после первой неудачной отправки события остаются в очереди")
+    void relayBatch_sendFailure_shouldKeepUnsentTail() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of(event(1), event(2), event(3)));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(1, relayed);
+        verify(outboxDao).delete(List.of(1L));
+        assertEquals(1, meterRegistry.get("user.events.outbox.send.failures").counter().count());
+        assertEquals(2, meterRegistry.get("user.kafka.send").tags("topic", "user-events", "result", "success").timer().count());
+        assertEquals(1, meterRegistry.get("user.kafka.send").tags("topic", "user-events", "result", "failure").timer().count());
+    }
+
+    @Test
+    @DisplayName("Outbox: после сбоя брокера relay выдерживает паузу, а глубина очереди видна в метриках")
+    void relay_afterFailure_shouldBackOffAndReportDepth() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of(event(1)));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenThrow(new IllegalStateException("max.block.ms exceeded"));
+        when(outboxDao.stats()).thenReturn(new OutboxStats(42, 60_000));
+
+        relay.relay();
+        relay.relay();
+
+        verify(outboxDao, times(1)).nextBatch(3);
+        verify(outboxDao).delete(List.of());
+        assertEquals(42, meterRegistry.get("user.events.outbox.depth").gauge().value());
+        assertEquals(60, meterRegistry.get("user.events.outbox.oldest.age").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Outbox: пустая очередь не обращается к Kafka")
+    void relay_emptyOutbox_shouldNotSend() {
+        when(outboxDao.nextBatch(3)).thenReturn(List.of());
+        when(outboxDao.stats()).thenReturn(new OutboxStats(0, 0));
+
+        relay.relay();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxDao, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Outbox: пока очередь разбирает другая реплика, relay не читает порцию и не обращается к Kafka")
+    void relayBatch_lockHeldByAnotherReplica_shouldSkip() {
+        when(outboxDao.withRelayLock(any())).thenReturn(Optional.empty());
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(0, relayed);
+        verify(outboxDao, never()).nextBatch(anyInt());
+        verify(outboxDao, never()).delete(any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProducerRecord<String, byte[]> anyRecord() {
+        return any(ProducerRecord.class);
+    }
+
+    private UserEventMessage decode(ProducerRecord<String, byte[]> record) {
+        try {
+            return userEventCodecs.decode(record.headers(), record.value());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package UserService.unit.service;
+
+import UserService.service.RadixTrie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTrieTest {
+
+    @Test
+    @DisplayName("Trie: поиск по префиксу возвращает id в порядке ключей")
+    void findByPrefix_shouldReturnIdsInKeyOrder() {
+        RadixTrie trie = new RadixTrie();
+        trie.put("john", 3);
+        trie.put("joanna", 2);
+        trie.put("jo", 1);
+        trie.put("mary", 4);
+
+        assertThat(trie.findByPrefix("jo", 10)).containsExactly(1L, 2L, 3L);
+        assertThat(trie.findByPrefix("joh", 10)).containsExactly(3L);
+        assertThat(trie.findByPrefix("joa", 10)).containsExactly(2L);
+        assertThat(trie.findByPrefix("jx", 10)).isEmpty();
+        assertThat(trie.findByPrefix("johnny", 10)).isEmpty();
+        assertThat(trie.findByPrefix("", 10)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(trie.findByPrefix("j", 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Trie: один id под несколькими ключами попадает в результат один раз")
+    void findByPrefix_shouldDeduplicateIds() {
+        RadixTrie trie = new RadixTrie();
+        trie.put("ivan ivanov", 7);
+        trie.put("ivanov", 7);
+        trie.put("ivan@example.com", 7);
+
+        assertThat(trie.findByPrefix("iv", 10)).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Trie: удаление сжимает дерево и возвращает оценку памяти к исходной")
+    void remove_shouldRestoreCompactShape() {
+        RadixTrie trie = new RadixTrie();
+        trie.put("john", 1);
+        long single = trie.estimatedBytes();
+
+        trie.put("joanna", 2);
+        trie.put("jo", 3);
+        trie.put("john", 4);
+        trie.remove("jo", 3);
+        trie.remove("joanna", 2);
+        trie.remove("john", 4);
+        trie.remove("missing", 1);
+        trie.remove("joh", 1);
+
+        assertThat(trie.findByPrefix("j", 10)).containsExactly(1L);
+        assertThat(trie.estimatedBytes()).isEqualTo(single);
+
+        trie.remove("john", 1);
+        assertThat(trie.findByPrefix("", 10)).isEmpty();
+        assertThat(trie.estimatedBytes()).isZero();
+    }
+}
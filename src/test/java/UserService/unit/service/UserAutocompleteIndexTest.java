@@ -0,0 +1,106 @@
+package UserService.unit.service;
+
+import UserService.dao.UserDao;
+import UserService.dto.UserSuggestion;
+import UserService.entity.User;
+import UserService.service.UserAutocompleteIndex;
+import UserService.util.TestDataFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserAutocompleteIndexTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private UserAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new UserAutocompleteIndex(userDao, entityManager, transactionManager, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Autocomplete: индекс строится из базы и ищет по имени, слову имени и email без учета регистра")
+    void build_shouldIndexNamesWordsAndEmails() {
+        User ivan = TestDataFactory.createUserWithParams("Иван Петров", "ivan@example.com", 30);
+        ivan.setId(1L);
+        User maria = TestDataFactory.createUserWithParams("Мария Иванова", "maria@example.com", 25);
+        maria.setId(2L);
+        when(userDao.streamAllOrderedById()).thenReturn(Stream.of(ivan, maria));
+
+        index.build();
+
+        assertThat(index.suggest("ИВА", null)).extracting(UserSuggestion::getId).containsExactly(1L, 2L);
+        assertThat(index.suggest("пет", null)).extracting(UserSuggestion::getName).containsExactly("Иван Петров");
+        assertThat(index.suggest("maria@", null)).extracting(UserSuggestion::getEmail).containsExactly("maria@example.com");
+        assertThat(index.suggest("  ", null)).isEmpty();
+        assertThat(meterRegistry.get("user.autocomplete.index.entries").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("user.autocomplete.index.size").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Autocomplete: обновление и удаление убирают старые ключи")
+    void putAndRemove_shouldKeepIndexInSync() {
+        index.put(1L, "John Doe", "john@example.com");
+        index.put(1L, "Jack Doe", "jack@example.com");
+        index.putAll(List.of(TestDataFactory.createTestUser(2L, "jane@example.com")));
+
+        assertThat(index.suggest("john", null)).isEmpty();
+        assertThat(index.suggest("ja", null)).extracting(UserSuggestion::getId).containsExactly(1L, 2L);
+
+        index.remove(1L);
+
+        assertThat(index.suggest("ja", null)).extracting(UserSuggestion::getId).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Autocomplete: частичное обновление сохраняет неизменившиеся поля")
+    void update_shouldKeepUnchangedFields() {
+        index.put(1L, "John Doe", "john@example.com");
+
+        index.update(1L, null, "jd@example.com");
+        index.update(2L, "Unknown", null);
+
+        assertThat(index.suggest("jd@", null)).extracting(UserSuggestion::getName).containsExactly("John Doe");
+        assertThat(index.suggest("john@", null)).isEmpty();
+        assertThat(index.suggest("unknown", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Autocomplete: количество подсказок ограничено")
+    void suggest_shouldCapLimit() {
+        for (long id = 1; id <= UserAutocompleteIndex.MAX_LIMIT + 10; id++) {
+            index.put(id, "User " + id, "user" + id + "@example.com");
+        }
+
+        assertThat(index.suggest("user", null)).hasSize(UserAutocompleteIndex.DEFAULT_LIMIT);
+        assertThat(index.suggest("user", 1_000)).hasSize(UserAutocompleteIndex.MAX_LIMIT);
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("user", 0));
+    }
+}
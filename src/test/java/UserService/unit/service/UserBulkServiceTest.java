@@ -0,0 +1,184 @@
+package UserService.unit.service;
+
+import UserService.dao.UserDao;
+import UserService.dto.BulkCreateUserResult;
+import UserService.dto.BulkCreateUsersResponse;
+import UserService.dto.CreateUserRequest;
+import UserService.entity.User;
+import UserService.kafka.UserEventProducer;
+import UserService.mapper.UserMapper;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserBulkService;
+import UserService.service.UserCounter;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBulkServiceTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserEventProducer userEventProducer;
+
+    @Mock
+    private UserAutocompleteIndex userAutocompleteIndex;
+
+    @Mock
+    private UserCounter userCounter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ValidatorFactory validatorFactory;
+    private UserBulkService userBulkService;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory();
+        userBulkService = new UserBulkService(userDao, userMapper, userEventProducer,
+                userAutocompleteIndex, userCounter, transactionTemplate, validatorFactory.getValidator());
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(userMapper.toEntity(any(CreateUserRequest.class))).thenAnswer(invocation -> {
+            CreateUserRequest request = invocation.getArgument(0);
+            return new User(request.getName(), request.getEmail(), request.getAge());
+        });
+        lenient().when(userDao.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Bulk: результат по каждому элементу - созданные, дубликаты и невалидные")
+    void createUsers_shouldReportResultPerItem() {
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Первый", "first@example.com", 20),
+                new CreateUserRequest("", "bad-email", 20),
+                new CreateUserRequest("Занятый", "taken@example.com", 30),
+                new CreateUserRequest("Повтор", "first@example.com", 40),
+                new CreateUserRequest("Второй", "second@example.com", 50)
+        );
+        when(userDao.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+
+        BulkCreateUsersResponse response = userBulkService.createUsers(requests);
+
+        assertEquals(2, response.getCreated());
+        assertEquals(2, response.getDuplicates());
+        assertEquals(1, response.getInvalid());
+        assertEquals(0, response.getFailed());
+        assertThat(response.getResults())
+                .extracting(BulkCreateUserResult::getStatus)
+                .containsExactly(
+                        BulkCreateUserResult.Status.CREATED,
+                        BulkCreateUserResult.Status.INVALID,
+                        BulkCreateUserResult.Status.DUPLICATE,
+                        BulkCreateUserResult.Status.DUPLICATE,
+                        BulkCreateUserResult.Status.CREATED);
+        assertThat(response.getResults().get(0).getId()).isNotNull();
+
+        verify(userDao, times(1)).saveAll(argThat(users -> ((List<?>) users).size() == 2));
+        verify(userEventProducer).sendUserCreatedEvents(argThat(users -> users.stream()
+                .map(User::getEmail)
+                .toList()
+                .equals(List.of("first@example.com", "second@example.com"))));
+        verifyNoMoreInteractions(userEventProducer);
+    }
+
+    @Test
+    @DisplayName("Bulk: вставка разбивается на порции со своей транзакцией")
+    void createUsers_shouldInsertInChunks() {
+        List<CreateUserRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            requests.add(new CreateUserRequest("Пользователь " + i, "user" + i + "@example.com", 30));
+        }
+        when(userDao.findExistingEmails(anyCollection())).thenReturn(Collections.emptySet());
+
+        BulkCreateUsersResponse response = userBulkService.createUsers(requests);
+
+        assertEquals(2_500, response.getCreated());
+        verify(userDao, times(3)).findExistingEmails(anyCollection());
+        verify(userDao, times(3)).saveAll(anyList());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(userEventProducer, times(3)).sendUserCreatedEvents(anyList());
+    }
+
+    @Test
+    @DisplayName("Bulk: конфликт при пакетной вставке - повтор по одному элементу")
+    void createUsers_batchConflict_shouldFallBackToSingleInserts() {
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Первый", "first@example.com", 20),
+                new CreateUserRequest("Гонка", "race@example.com", 30)
+        );
+        when(userDao.findExistingEmails(anyCollection())).thenReturn(Collections.emptySet());
+        when(userDao.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userDao.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if ("race@example.com".equals(user.getEmail())) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            user.setId(7L);
+            return user;
+        });
+
+        BulkCreateUsersResponse response = userBulkService.createUsers(requests);
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(7L, response.getResults().get(0).getId());
+        assertEquals(BulkCreateUserResult.Status.DUPLICATE, response.getResults().get(1).getStatus());
+        verify(userEventProducer, times(1)).sendUserCreatedEvent(7L, "Первый", "first@example.com");
+    }
+
+    @Test
+    @DisplayName("Bulk: пустой и слишком большой список отклоняются")
+    void createUsers_shouldRejectEmptyAndOversizedLists() {
+        assertThrows(ResponseStatusException.class, () -> userBulkService.createUsers(List.of()));
+
+        List<CreateUserRequest> tooMany = Collections.nCopies(UserBulkService.MAX_BULK_SIZE + 1,
+                new CreateUserRequest("Имя", "name@example.com", 20));
+        assertThrows(ResponseStatusException.class, () -> userBulkService.createUsers(tooMany));
+
+        verifyNoInteractions(userDao, userEventProducer);
+    }
+}
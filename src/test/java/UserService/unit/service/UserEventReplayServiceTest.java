@@ -0,0 +1,142 @@
+package UserService.unit.service;
+
+import UserService.dao.UserDao;
+import UserService.dao.UserEventReplayDao;
+import UserService.dao.UserEventReplayDao.ReplayCheckpoint;
+import UserService.entity.User;
+import UserService.kafka.UserEventProducer;
+import UserService.service.UserEventReplayService;
+import UserService.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventReplayServiceTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private UserEventProducer userEventProducer;
+
+    @Mock
+    private UserEventReplayDao replayDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private UserEventReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        // Исполнитель в том же потоке: start возвращается после завершения публикации
+        replayService = new UserEventReplayService(userDao, userEventProducer, replayDao, transactionTemplate,
+                Runnable::run, 2, 1_000_000);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static ReplayCheckpoint checkpoint(String status, long fromId, long toId, long lastId) {
+        return new ReplayCheckpoint(status, fromId, toId, lastId, 0, null, null, null);
+    }
+
+    private static User user(long id) {
+        return TestDataFactory.createTestUser(id, "user" + id + "@example.com");
+    }
+
+    @Test
+    @DisplayName("Replay: пользователи публикуются порциями по id, контрольная точка сдвигается после каждой")
+    void start_shouldReplayChunksAndAdvanceCheckpoint() {
+        when(replayDao.find()).thenReturn(Optional.of(checkpoint("RUNNING", 1, 10, 0)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(0L, 10L, Limit.of(2)))
+                .thenReturn(List.of(user(1), user(2)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(2L, 10L, Limit.of(2)))
+                .thenReturn(List.of(user(5)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(5L, 10L, Limit.of(2)))
+                .thenReturn(List.of());
+        when(replayDao.advance(anyLong(), anyLong(), anyInt())).thenReturn(true);
+
+        replayService.start(1L, 10L);
+
+        verify(replayDao).start(1, 10);
+        verify(userEventProducer, times(2)).sendUserSnapshotEvents(anyList());
+        verify(replayDao).advance(0, 2, 2);
+        verify(replayDao).advance(2, 5, 1);
+        verify(replayDao).finish("COMPLETED", null);
+    }
+
+    @Test
+    @DisplayName("Replay: продолжение начинается с сохраненной контрольной точки")
+    void resume_shouldContinueFromCheckpoint() {
+        when(replayDao.find()).thenReturn(Optional.of(checkpoint("STOPPED", 1, Long.MAX_VALUE, 40)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(40L, Long.MAX_VALUE, Limit.of(2)))
+                .thenReturn(List.of());
+
+        replayService.resume();
+
+        verify(replayDao).resume();
+        verify(replayDao).finish("COMPLETED", null);
+        verify(userEventProducer, never()).sendUserSnapshotEvents(anyList());
+    }
+
+    @Test
+    @DisplayName("Replay: если контрольную точку сдвинул другой экземпляр, публикация прекращается без смены статуса")
+    void start_checkpointLost_shouldStopWithoutFinishing() {
+        when(replayDao.find()).thenReturn(Optional.of(checkpoint("RUNNING", 1, Long.MAX_VALUE, 0)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(0L, Long.MAX_VALUE, Limit.of(2)))
+                .thenReturn(List.of(user(1)));
+        when(replayDao.advance(0, 1, 1)).thenReturn(false);
+
+        replayService.start(null, null);
+
+        verify(replayDao, never()).finish(any(), any());
+    }
+
+    @Test
+    @DisplayName("Replay: некорректный диапазон и продолжение завершенной публикации отклоняются")
+    void start_invalidRequests_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(10L, 5L));
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(0L, null));
+
+        when(replayDao.find()).thenReturn(Optional.of(checkpoint("COMPLETED", 1, 10, 10)));
+        assertThrows(IllegalStateException.class, () -> replayService.resume());
+        verifyNoInteractions(userEventProducer);
+    }
+
+    @Test
+    @DisplayName("Replay: нулевая скорость снимает ограничение, отрицательная скорость и пустая порция отклоняются")
+    void constructor_shouldValidateRateAndChunkSize() {
+        UserEventReplayService unthrottled = new UserEventReplayService(userDao, userEventProducer, replayDao,
+                transactionTemplate, Runnable::run, 2, 0);
+        when(replayDao.find()).thenReturn(Optional.of(checkpoint("RUNNING", 1, 10, 0)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(0L, 10L, Limit.of(2)))
+                .thenReturn(List.of(user(1)));
+        when(userDao.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(1L, 10L, Limit.of(2)))
+                .thenReturn(List.of());
+        when(replayDao.advance(0, 1, 1)).thenReturn(true);
+
+        unthrottled.start(1L, 10L);
+
+        verify(replayDao).finish("COMPLETED", null);
+        assertThrows(IllegalArgumentException.class, () -> new UserEventReplayService(userDao, userEventProducer,
+                replayDao, transactionTemplate, Runnable::run, 2, -1));
+        assertThrows(IllegalArgumentException.class, () -> new UserEventReplayService(userDao, userEventProducer,
+                replayDao, transactionTemplate, Runnable::run, 0, 100));
+    }
+}
@@ -0,0 +1,87 @@
+package UserService.unit.service;
+
+import UserService.dao.UserCopyDao;
+import UserService.dao.UserDao;
+import UserService.dto.UserResponse;
+import UserService.entity.User;
+import UserService.mapper.UserMapper;
+import UserService.service.UserExportService;
+import UserService.util.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private UserCopyDao userCopyDao;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private UserExportService userExportService;
+
+    @Test
+    @DisplayName("Export: NDJSON - одна строка на пользователя, сущности отсоединяются")
+    void exportNdjson_shouldWriteOneLinePerUserAndDetachEntities() {
+        List<User> users = TestDataFactory.createTestUsers(2);
+
+        when(userDao.streamAllOrderedById()).thenReturn(users.stream());
+        when(userMapper.toResponse(users.get(0))).thenReturn(new UserResponse(1L, "Test User", "user1@example.com", 25));
+        when(userMapper.toResponse(users.get(1))).thenReturn(new UserResponse(2L, "Test User", "user2@example.com", 25));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = userExportService.exportNdjson(out);
+
+        assertEquals(2L, exported);
+        assertEquals(
+                "{\"id\":1,\"name\":\"Test User\",\"email\":\"user1@example.com\",\"age\":25}\n" +
+                        "{\"id\":2,\"name\":\"Test User\",\"email\":\"user2@example.com\",\"age\":25}\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(users.get(0));
+        verify(entityManager).detach(users.get(1));
+    }
+
+    @Test
+    @DisplayName("Export: NDJSON - пустая таблица даёт пустой ответ")
+    void exportNdjson_emptyTable_shouldWriteNothing() {
+        when(userDao.streamAllOrderedById()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = userExportService.exportNdjson(out);
+
+        assertEquals(0L, exported);
+        assertEquals(0, out.size());
+        verifyNoInteractions(userMapper, entityManager);
+    }
+
+    @Test
+    @DisplayName("Export: CSV - выгрузка делегируется COPY")
+    void exportCsv_shouldDelegateToCopy() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(userCopyDao.copyOutCsv(out)).thenReturn(42L);
+
+        assertEquals(42L, userExportService.exportCsv(out));
+        verify(userCopyDao).copyOutCsv(out);
+    }
+}
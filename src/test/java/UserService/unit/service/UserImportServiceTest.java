@@ -0,0 +1,83 @@
+package UserService.unit.service;
+
+import UserService.dao.UserCopyDao;
+import UserService.dto.UserImportResult;
+import UserService.entity.User;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserCounter;
+import UserService.service.UserImportService;
+import UserService.util.TestDataFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserCopyDao userCopyDao;
+
+    @Mock
+    private UserAutocompleteIndex userAutocompleteIndex;
+
+    @Mock
+    private UserCounter userCounter;
+
+    @InjectMocks
+    private UserImportService userImportService;
+
+    @Test
+    @DisplayName("Import: счетчик и индекс подсказок обновляются по каждой зафиксированной порции")
+    void importCsv_shouldUpdateCounterAndIndexPerCommittedChunk() {
+        InputStream csv = new ByteArrayInputStream("name,email,age\n".getBytes());
+        List<User> firstChunk = TestDataFactory.createTestUsers(2);
+        List<User> secondChunk = List.of(TestDataFactory.createTestUser(3L, "user3@example.com"));
+
+        when(userCopyDao.copyInCsv(eq(csv), any())).thenAnswer(invocation -> {
+            Consumer<List<User>> onChunk = invocation.getArgument(1);
+            onChunk.accept(firstChunk);
+            onChunk.accept(secondChunk);
+            return new UserImportResult(4, 3, 1);
+        });
+
+        UserImportResult result = userImportService.importCsv(csv);
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getSkipped());
+        verify(userAutocompleteIndex).putAll(firstChunk);
+        verify(userAutocompleteIndex).putAll(secondChunk);
+        verify(userCounter).add(2);
+        verify(userCounter).add(1);
+    }
+
+    @Test
+    @DisplayName("Import: некорректный CSV возвращает 400")
+    void importCsv_malformedCsv_shouldReturnBadRequest() {
+        InputStream csv = new ByteArrayInputStream("garbage".getBytes());
+        when(userCopyDao.copyInCsv(eq(csv), any()))
+                .thenThrow(new IllegalArgumentException("Некорректный CSV: extra data after last expected column"));
+
+        ResponseStatusException exception = assertThrows(
+                ResponseStatusException.class,
+                () -> userImportService.importCsv(csv)
+        );
+
+        assertEquals(400, exception.getStatusCode().value());
+        verifyNoInteractions(userAutocompleteIndex, userCounter);
+    }
+}
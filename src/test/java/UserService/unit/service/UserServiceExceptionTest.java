@@ -7,6 +7,8 @@ import UserService.dto.UserResponse;
 import UserService.entity.User;
 import UserService.kafka.UserEventProducer;
 import UserService.mapper.UserMapper;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserCounter;
 import UserService.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,12 @@ class UserServiceExceptionTest {
     @Mock
     private UserEventProducer userEventProducer;
 
+    @Mock
+    private UserAutocompleteIndex userAutocompleteIndex;
+
+    @Mock
+    private UserCounter userCounter;
+
     @InjectMocks
     private UserService userService;
 
@@ -117,18 +125,18 @@ class UserServiceExceptionTest {
 
     @Test
     @DisplayName("Service: Обработка исключений DAO при получении всех пользователей")
-    void getAllUsers_shouldHandleDaoExceptions() {
+    void getUsersPage_shouldHandleDaoExceptions() {
 
-        when(userDao.findAll()).thenThrow(new RuntimeException("Connection error"));
+        when(userDao.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenThrow(new RuntimeException("Connection error"));
 
 
         RuntimeException exception = assertThrows(
                 RuntimeException.class,
-                () -> userService.getAllUsers()
+                () -> userService.getUsersPage(null, null)
         );
 
         assertTrue(exception.getMessage().contains("Ошибка при получении пользователей"));
-        verify(userDao).findAll();
+        verify(userDao).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
     }
 
     @Test
@@ -143,7 +151,7 @@ class UserServiceExceptionTest {
         existingUser.setEmail("old@example.com");
 
         when(userDao.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userDao.existsByEmail("new@example.com")).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("users_email_key")).when(userDao).flush();
 
 
         IllegalArgumentException exception = assertThrows(
@@ -152,10 +160,11 @@ class UserServiceExceptionTest {
         );
 
         assertEquals("Новый email уже занят", exception.getMessage());
+        assertInstanceOf(DataIntegrityViolationException.class, exception.getCause());
 
         verify(userDao).findById(1L);
-        verify(userDao).existsByEmail("new@example.com");
-        verify(userDao, never()).save(any());
+        verify(userDao).flush();
+        verify(userEventProducer, never()).sendUserUpdatedEvent(anyLong(), any());
     }
 
     @Test
@@ -193,7 +202,7 @@ class UserServiceExceptionTest {
         existingUser.setName("Test User");
 
         when(userDao.findById(1L)).thenReturn(Optional.of(existingUser));
-        doThrow(new RuntimeException("Delete failed")).when(userDao).deleteById(1L);
+        doThrow(new RuntimeException("Delete failed")).when(userDao).delete(existingUser);
 
 
         RuntimeException exception = assertThrows(
@@ -203,30 +212,30 @@ class UserServiceExceptionTest {
 
         assertEquals("Delete failed", exception.getMessage());
         verify(userDao).findById(1L);
-        verify(userDao).deleteById(1L);
+        verify(userDao).delete(existingUser);
     }
 
     @Test
     @DisplayName("Service: Обработка исключений DAO при поиске по имени")
     void searchUsersByName_shouldHandleDaoExceptions() {
 
-        when(userDao.findByName("John")).thenThrow(new RuntimeException("Search failed"));
+        when(userDao.searchByNameContaining(anyString(), anyLong(), anyInt())).thenThrow(new RuntimeException("Search failed"));
 
 
         RuntimeException exception = assertThrows(
                 RuntimeException.class,
-                () -> userService.searchUsersByName("John")
+                () -> userService.searchUsersByName("John", null, null)
         );
 
         assertTrue(exception.getMessage().contains("Ошибка при поиске пользователей"));
-        verify(userDao).findByName("John");
+        verify(userDao).searchByNameContaining("%John%", 0L, UserService.DEFAULT_PAGE_SIZE + 1);
     }
 
     @Test
     @DisplayName("Service: Обработка исключений DAO при подсчете пользователей")
     void getUserCount_shouldHandleDaoExceptions() {
 
-        when(userDao.count()).thenThrow(new RuntimeException("Count failed"));
+        when(userCounter.get()).thenThrow(new RuntimeException("Count failed"));
 
 
         RuntimeException exception = assertThrows(
@@ -235,7 +244,7 @@ class UserServiceExceptionTest {
         );
 
         assertTrue(exception.getMessage().contains("Ошибка при подсчете пользователей"));
-        verify(userDao).count();
+        verify(userCounter).get();
     }
 
     @Test
@@ -273,7 +282,7 @@ class UserServiceExceptionTest {
         existingUser.setEmail("old@example.com");
 
         when(userDao.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userDao.existsByEmail("new@example.com")).thenThrow(new RuntimeException("Email check failed"));
+        doThrow(new RuntimeException("Email check failed")).when(userDao).flush();
 
         RuntimeException exception = assertThrows(
                 RuntimeException.class,
@@ -282,8 +291,8 @@ class UserServiceExceptionTest {
 
         assertEquals("Email check failed", exception.getMessage());
         verify(userDao).findById(1L);
-        verify(userDao).existsByEmail("new@example.com");
-        verify(userDao, never()).save(any());
+        verify(userDao).flush();
+        verify(userDao, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -3,10 +3,14 @@ package UserService.unit.service;
 import UserService.dao.UserDao;
 import UserService.dto.CreateUserRequest;
 import UserService.dto.UpdateUserRequest;
+import UserService.dto.UserFieldChange;
+import UserService.dto.UserPage;
 import UserService.dto.UserResponse;
 import UserService.entity.User;
 import UserService.kafka.UserEventProducer;
 import UserService.mapper.UserMapper;
+import UserService.service.UserAutocompleteIndex;
+import UserService.service.UserCounter;
 import UserService.service.UserService;
 import UserService.util.TestDataFactory;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,9 +21,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +47,12 @@ class UserServiceUnitTest {
     @Mock
     private UserEventProducer userEventProducer;
 
+    @Mock
+    private UserAutocompleteIndex userAutocompleteIndex;
+
+    @Mock
+    private UserCounter userCounter;
+
     @InjectMocks
     private UserService userService;
 
@@ -194,8 +206,8 @@ class UserServiceUnitTest {
     }
 
     @Test
-    @DisplayName("Service: Получение всех пользователей")
-    void getAllUsers_shouldReturnAllUsers() {
+    @DisplayName("Service: Получение страницы пользователей")
+    void getUsersPage_shouldReturnPageWithoutNextCursor() {
 
         List<User> users = Arrays.asList(
                 TestDataFactory.createTestUser(1L, "user1@example.com"),
@@ -205,23 +217,70 @@ class UserServiceUnitTest {
         UserResponse userResponse1 = createUserResponse(1L, "User 1", "user1@example.com", 30);
         UserResponse userResponse2 = createUserResponse(2L, "User 2", "user2@example.com", 25);
 
-        when(userDao.findAll()).thenReturn(users);
+        when(userDao.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserService.DEFAULT_PAGE_SIZE + 1))).thenReturn(users);
         when(userMapper.toResponse(users.get(0))).thenReturn(userResponse1);
         when(userMapper.toResponse(users.get(1))).thenReturn(userResponse2);
 
 
-        List<UserResponse> result = userService.getAllUsers();
+        UserPage result = userService.getUsersPage(null, null);
 
 
-        assertThat(result)
+        assertThat(result.getUsers())
                 .hasSize(2)
                 .extracting(UserResponse::getEmail)
                 .containsExactly("user1@example.com", "user2@example.com");
+        assertNull(result.getNextCursor());
+
+        verify(userDao).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserService.DEFAULT_PAGE_SIZE + 1));
+        verify(userMapper, times(2)).toResponse(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Service: Страница пользователей - курсор следующей страницы")
+    void getUsersPage_shouldReturnNextCursorWhenMoreRowsExist() {
+
+        List<User> users = TestDataFactory.createTestUsers(3);
+
+        when(userDao.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3))).thenReturn(users);
+        when(userMapper.toResponse(any(User.class))).thenReturn(testUserResponse);
+
+
+        UserPage result = userService.getUsersPage(10L, 2);
+
 
-        verify(userDao).findAll();
+        assertThat(result.getUsers()).hasSize(2);
+        assertEquals(2L, result.getNextCursor());
         verify(userMapper, times(2)).toResponse(any(User.class));
     }
 
+    @Test
+    @DisplayName("Service: Страница пользователей - размер страницы ограничен сверху")
+    void getUsersPage_shouldCapPageSize() {
+
+        when(userDao.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserService.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+
+
+        UserPage result = userService.getUsersPage(null, 1_000_000);
+
+
+        assertThat(result.getUsers()).isEmpty();
+        assertNull(result.getNextCursor());
+        verify(userDao).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("Service: Страница пользователей - некорректный размер страницы")
+    void getUsersPage_shouldRejectNonPositiveLimit() {
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.getUsersPage(null, 0)
+        );
+
+        assertEquals("Некорректный размер страницы", exception.getMessage());
+        verifyNoInteractions(userDao);
+    }
+
     @Test
     @DisplayName("Service: Обновление пользователя")
     void updateUser_shouldUpdateUserSuccessfully() {
@@ -237,7 +296,6 @@ class UserServiceUnitTest {
         UserResponse updatedResponse = createUserResponse(1L, "New Name", "new@example.com", 30);
 
         when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userDao.existsByEmail("new@example.com")).thenReturn(false);
         when(userDao.save(any(User.class))).thenReturn(updatedUser);
         when(userMapper.toResponse(updatedUser)).thenReturn(updatedResponse);
 
@@ -250,9 +308,14 @@ class UserServiceUnitTest {
         assertEquals(30, result.getAge());
 
         verify(userDao).findById(1L);
-        verify(userDao).existsByEmail("new@example.com");
         verify(userDao).save(any(User.class));
+        verify(userDao).flush();
+        verify(userDao, never()).existsByEmail(anyString());
         verify(userMapper).toResponse(updatedUser);
+        verify(userEventProducer).sendUserUpdatedEvent(1L, Map.of(
+                "name", new UserFieldChange("Test User", "New Name"),
+                "email", new UserFieldChange("test@example.com", "new@example.com"),
+                "age", new UserFieldChange("25", "30")));
     }
 
     @Test
@@ -282,7 +345,7 @@ class UserServiceUnitTest {
         UpdateUserRequest request = createUpdateUserRequest(null, "taken@example.com", null);
 
         when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userDao.existsByEmail("taken@example.com")).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("users_email_key")).when(userDao).flush();
 
 
         RuntimeException exception = assertThrows(
@@ -292,8 +355,8 @@ class UserServiceUnitTest {
 
         assertEquals("Новый email уже занят", exception.getMessage());
         verify(userDao).findById(1L);
-        verify(userDao).existsByEmail("taken@example.com");
-        verify(userDao, never()).save(any(User.class));
+        verify(userDao).flush();
+        verify(userEventProducer, never()).sendUserUpdatedEvent(anyLong(), any());
     }
 
     @Test
@@ -327,8 +390,9 @@ class UserServiceUnitTest {
         assertEquals(25, result.getAge()); // возраст не изменился
 
         verify(userDao).findById(1L);
-        verify(userDao, never()).existsByEmail(anyString());
+        verify(userDao, never()).flush();
         verify(userDao).save(any(User.class));
+        verify(userEventProducer).sendUserUpdatedEvent(1L, Map.of("name", new UserFieldChange("Old Name", "New Name")));
     }
 
     @Test
@@ -336,14 +400,16 @@ class UserServiceUnitTest {
     void deleteUser_shouldDeleteUserSuccessfully() {
 
         when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
-        doNothing().when(userDao).deleteById(1L);
 
 
         userService.deleteUser(1L);
 
 
         verify(userDao).findById(1L);
-        verify(userDao).deleteById(1L);
+        verify(userDao).delete(testUser);
+        verify(userDao, never()).deleteById(anyLong());
+        verify(userEventProducer).sendUserDeletedEvent(1L, "Test User", "test@example.com");
+        verify(userCounter).add(-1);
     }
 
     @Test
@@ -360,7 +426,7 @@ class UserServiceUnitTest {
 
         assertEquals("Пользователь не найден", exception.getMessage());
         verify(userDao).findById(999L);
-        verify(userDao, never()).deleteById(anyLong());
+        verify(userDao, never()).delete(any(User.class));
     }
 
     @Test
@@ -375,35 +441,80 @@ class UserServiceUnitTest {
         UserResponse response1 = createUserResponse(1L, "John Doe", "john1@example.com", 30);
         UserResponse response2 = createUserResponse(2L, "John Smith", "john2@example.com", 25);
 
-        when(userDao.findByName("John")).thenReturn(users);
+        when(userDao.searchByNameContaining("%John%", 0L, UserService.DEFAULT_PAGE_SIZE + 1)).thenReturn(users);
         when(userMapper.toResponse(users.get(0))).thenReturn(response1);
         when(userMapper.toResponse(users.get(1))).thenReturn(response2);
 
 
-        List<UserResponse> result = userService.searchUsersByName("John");
+        UserPage result = userService.searchUsersByName("John", null, null);
 
 
-        assertThat(result)
+        assertThat(result.getNextCursor()).isNull();
+        assertThat(result.getUsers())
                 .hasSize(2)
                 .extracting(UserResponse::getName)
                 .containsExactly("John Doe", "John Smith");
 
-        verify(userDao).findByName("John");
+        verify(userDao).searchByNameContaining("%John%", 0L, UserService.DEFAULT_PAGE_SIZE + 1);
         verify(userMapper, times(2)).toResponse(any(User.class));
     }
 
+    @Test
+    @DisplayName("Service: Поиск по имени - символы шаблона LIKE экранируются")
+    void searchUsersByName_shouldEscapeLikeWildcards() {
+
+        when(userDao.searchByNameContaining("%50\\%\\_off%", 10L, 6)).thenReturn(List.of());
+
+        UserPage result = userService.searchUsersByName("  50%_off ", 10L, 5);
+
+        assertThat(result.getUsers()).isEmpty();
+        verify(userDao).searchByNameContaining("%50\\%\\_off%", 10L, 6);
+    }
+
+    @Test
+    @DisplayName("Service: Поиск по пустому имени не обращается к базе")
+    void searchUsersByName_blankName_shouldNotQuery() {
+
+        UserPage result = userService.searchUsersByName(" ", null, null);
+
+        assertThat(result.getUsers()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+        verifyNoInteractions(userDao);
+    }
+
     @Test
     @DisplayName("Service: Получение количества пользователей")
     void getUserCount_shouldReturnCorrectCount() {
 
-        when(userDao.count()).thenReturn(5L);
+        when(userCounter.get()).thenReturn(5L);
 
 
         long count = userService.getUserCount();
 
 
         assertEquals(5L, count);
-        verify(userDao).count();
+        verify(userCounter).get();
+        verify(userDao, never()).count();
+    }
+
+    @Test
+    @DisplayName("Service: Приблизительное количество пользователей из статистики")
+    void getUserCount_approximate_shouldUseStatistics() {
+
+        when(userDao.estimateCount()).thenReturn(1_000_000L);
+
+        assertEquals(1_000_000L, userService.getUserCount(true));
+        verifyNoInteractions(userCounter);
+    }
+
+    @Test
+    @DisplayName("Service: Без статистики приблизительное количество берется из счетчика")
+    void getUserCount_approximateWithoutStatistics_shouldFallBackToCounter() {
+
+        when(userDao.estimateCount()).thenReturn(-1L);
+        when(userCounter.get()).thenReturn(7L);
+
+        assertEquals(7L, userService.getUserCount(true));
     }
 
 
@@ -431,6 +542,7 @@ class UserServiceUnitTest {
         verify(userDao).findById(1L);
         verify(userDao).save(testUser);
         verify(userMapper).toResponse(testUser);
+        verify(userEventProducer, never()).sendUserUpdatedEvent(anyLong(), any());
     }
 
 
@@ -461,5 +573,6 @@ class UserServiceUnitTest {
         assertEquals("New Name", result.getName());
         assertEquals("test@example.com", result.getEmail());
         verify(userDao, never()).existsByEmail(anyString());
+        verify(userDao, never()).flush();
     }
 }
\ No newline at end of file
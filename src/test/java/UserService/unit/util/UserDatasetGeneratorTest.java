@@ -0,0 +1,46 @@
+package UserService.unit.util;
+
+import UserService.entity.User;
+import UserService.util.UserDatasetGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDatasetGeneratorTest {
+
+    private static final long USERS = UserDatasetGenerator.SEGMENT_SIZE * 2L + 123;
+
+    @Test
+    @DisplayName("Dataset: один seed дает тот же набор, другой seed - другой")
+    void users_shouldBeReproducibleForSeed() {
+        List<User> first = new UserDatasetGenerator(42).users(1, USERS).toList();
+        List<User> second = new UserDatasetGenerator(42).users(1, USERS).toList();
+        List<User> other = new UserDatasetGenerator(7).users(1, USERS).toList();
+
+        assertThat(first).hasSize((int) USERS);
+        assertThat(first).usingRecursiveFieldByFieldElementComparator().isEqualTo(second);
+        assertThat(first).extracting(User::getName).isNotEqualTo(other.stream().map(User::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Dataset: id идут подряд, email уникальны во всех сегментах, поля проходят валидацию CreateUserRequest")
+    void users_shouldHaveSequentialIdsAndUniqueValidEmails() {
+        List<User> users = new UserDatasetGenerator(42).users(1000, USERS).toList();
+
+        assertThat(users.getFirst().getId()).isEqualTo(1000L);
+        assertThat(users.getLast().getId()).isEqualTo(1000L + USERS - 1);
+        assertThat(users).extracting(User::getEmail).doesNotHaveDuplicates()
+                .allMatch(email -> email.length() <= 100 && email.matches("[^@\\s]+@[^@\\s]+"));
+        assertThat(users).allSatisfy(user -> {
+            assertThat(user.getName()).hasSizeBetween(2, 100);
+            assertThat(user.getCreatedAt()).isNotNull();
+            if (user.getAge() != null) {
+                assertThat(user.getAge()).isBetween(18, 80);
+            }
+        });
+        assertThat(users).extracting(User::getAge).containsNull();
+    }
+}
@@ -0,0 +1,71 @@
+package UserService.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Запоминает SQL, выполненные через DataSource (datasource-proxy, см. QueryRecorderConfig), чтобы тест мог
+// проверить число и вид обращений к базе на операцию. Записываются только запросы потока, вызвавшего start():
+// фоновые задачи приложения (сверка счетчика, relay outbox) в результат не попадают.
+// Пакетное выполнение считается одним обращением, как и уходит в базу
+public class QueryRecorder implements QueryExecutionListener {
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    // Hibernate берет id пулами по 50 (V2__users_id_sequence.sql): nextval выполняется раз в 50 вставок,
+    // и его наличие зависит от предыдущих тестов, а не от проверяемой операции
+    private static final Pattern SEQUENCE = Pattern.compile("^select\\s+nextval\\(", Pattern.CASE_INSENSITIVE);
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private volatile Thread recordingThread;
+
+    public void start() {
+        statements.clear();
+        recordingThread = Thread.currentThread();
+    }
+
+    public void stop() {
+        recordingThread = null;
+    }
+
+    // SQL в порядке выполнения
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    // Вид каждого обращения в порядке выполнения: "SELECT users", "UPDATE users", ...
+    // Без выборок из последовательности, см. SEQUENCE
+    public List<String> shapes() {
+        List<String> shapes = new ArrayList<>();
+        for (String sql : statements) {
+            String trimmed = sql.strip();
+            if (SEQUENCE.matcher(trimmed).find()) {
+                continue;
+            }
+            String kind = trimmed.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+            Matcher table = TABLE.matcher(trimmed);
+            shapes.add(table.find() ? kind + " " + table.group(1).toLowerCase(Locale.ROOT) : kind);
+        }
+        return shapes;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Thread.currentThread() != recordingThread) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(queryInfo.getQuery());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package UserService.util;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// Подключается в тест через @Import: DataSource приложения оборачивается в datasource-proxy,
+// все выполненные запросы передаются в QueryRecorder
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryRecorderConfig {
+
+    @Bean
+    public static QueryRecorder queryRecorder() {
+        return new QueryRecorder();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryRecordingDataSourcePostProcessor(QueryRecorder queryRecorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(queryRecorder)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
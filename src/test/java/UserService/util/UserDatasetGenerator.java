@@ -0,0 +1,209 @@
+package UserService.util;
+
+import UserService.entity.User;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Синтетические пользователи в объеме продакшена (миллионы строк) для бенчмарков и проверки планов запросов.
+// Набор делится на сегменты по SEGMENT_SIZE строк, у каждого сегмента свой генератор случайных чисел,
+// выведенный из seed и номера сегмента. Поэтому сегменты можно строить и загружать параллельно,
+// а один и тот же seed на пустой базе всегда дает тот же набор строк независимо от числа потоков.
+// Email уникален за счет id в локальной части, повторная загрузка в ту же базу не конфликтует с прежней
+public class UserDatasetGenerator {
+
+    public static final int SEGMENT_SIZE = 100_000;
+
+    private static final String RESERVE_IDS_SQL = "SELECT setval('users_seq', nextval('users_seq') + ?) - ?";
+    private static final String COPY_SQL = "COPY users (id, name, email, age, created_at) FROM STDIN";
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    // Частые имена в начале списков: выбор смещен к ним, как в реальных данных
+    private static final String[] FIRST_NAMES = {
+            "Alexander", "Maria", "Dmitry", "Anna", "Ivan", "Elena", "Sergey", "Olga", "Andrey", "Natalia",
+            "Alexey", "Irina", "Mikhail", "Tatiana", "Nikolay", "Ekaterina", "Pavel", "Svetlana", "Artem", "Julia",
+            "John", "Emma", "Michael", "Olivia", "David", "Sophia", "James", "Isabella", "Robert", "Mia",
+            "Daniel", "Charlotte", "Thomas", "Amelia", "Lucas", "Harper", "Mateo", "Evelyn", "Leon", "Hannah"
+    };
+    private static final String[] LAST_NAMES = {
+            "Ivanov", "Smirnov", "Kuznetsov", "Popov", "Vasiliev", "Petrov", "Sokolov", "Mikhailov", "Novikov",
+            "Fedorov", "Morozov", "Volkov", "Alekseev", "Lebedev", "Semenov", "Egorov", "Pavlov", "Kozlov",
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Martin", "Lee",
+            "Muller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann"
+    };
+    private static final String[] DOMAINS = {
+            "gmail.com", "gmail.com", "gmail.com", "yandex.ru", "yandex.ru", "mail.ru", "outlook.com",
+            "yahoo.com", "icloud.com", "example.com"
+    };
+    // Регистрации равномерно распределены по пяти годам до этой даты; фиксированная дата сохраняет воспроизводимость
+    private static final LocalDateTime REGISTRATION_END = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final long REGISTRATION_SPAN_SECONDS = 5L * 365 * 24 * 3600;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long seed;
+
+    public UserDatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // Пользователи с id firstId..firstId+count-1 в памяти, для проверок без базы
+    public Stream<User> users(long firstId, long count) {
+        return LongStream.range(0, segments(count)).boxed()
+                .flatMap(segment -> segment(firstId, segment, count).stream());
+    }
+
+    // Загружает count пользователей через COPY в parallelism соединений и возвращает первый id набора.
+    // id резервируются в users_seq одним запросом, поэтому последующие вставки приложения с ними не пересекаются.
+    // Строки не проходят через outbox: событий USER_CREATED и снимков для users-state по ним не будет
+    public long load(DataSource dataSource, long count, int parallelism) {
+        if (count <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Число пользователей и потоков должно быть положительным");
+        }
+        long firstId = reserveIds(dataSource, count);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (long segment = 0; segment < segments(count); segment++) {
+                long current = segment;
+                futures.add(executor.submit(() -> copySegment(dataSource, firstId, current, count)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Загрузка синтетических пользователей прервана", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Ошибка при загрузке синтетических пользователей через COPY", e.getCause());
+        }
+        analyze(dataSource);
+        return firstId;
+    }
+
+    private static long segments(long count) {
+        return (count + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+    }
+
+    private List<User> segment(long firstId, long segment, long count) {
+        SplittableRandom random = random(segment);
+        long from = segment * SEGMENT_SIZE;
+        long to = Math.min(from + SEGMENT_SIZE, count);
+        List<User> users = new ArrayList<>((int) (to - from));
+        for (long index = from; index < to; index++) {
+            users.add(next(random, firstId + index));
+        }
+        return users;
+    }
+
+    private SplittableRandom random(long segment) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + segment);
+    }
+
+    private static User next(SplittableRandom random, long id) {
+        String first = skewed(random, FIRST_NAMES);
+        String last = skewed(random, LAST_NAMES);
+        String email = first.toLowerCase() + "." + last.toLowerCase() + "." + Long.toString(id, 36)
+                + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        // Около 5% без возраста, остальные 18-80 с пиком в 25-40
+        Integer age = random.nextInt(20) == 0 ? null : 18 + (random.nextInt(32) + random.nextInt(32));
+        User user = new User(first + " " + last, email, age);
+        user.setId(id);
+        user.setCreatedAt(REGISTRATION_END.minusSeconds(random.nextLong(REGISTRATION_SPAN_SECONDS)));
+        return user;
+    }
+
+    private static String skewed(SplittableRandom random, String[] values) {
+        double roll = random.nextDouble();
+        return values[(int) (roll * roll * values.length)];
+    }
+
+    private static long reserveIds(DataSource dataSource, long count) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RESERVE_IDS_SQL)) {
+            statement.setLong(1, count);
+            statement.setLong(2, count - 1);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Ошибка при резервировании id в users_seq", e);
+        }
+    }
+
+    // Строки сегмента пишутся в COPY по мере генерации, без промежуточного списка.
+    // synchronous_commit выключен только для этого соединения: потеря тестовых данных при сбое допустима
+    private void copySegment(DataSource dataSource, long firstId, long segment, long count) throws SQLException {
+        SplittableRandom random = random(segment);
+        long from = segment * SEGMENT_SIZE;
+        long to = Math.min(from + SEGMENT_SIZE, count);
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET synchronous_commit TO off");
+            }
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 256);
+                for (long index = from; index < to; index++) {
+                    appendRow(buffer, next(random, firstId + index));
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        write(copyIn, buffer);
+                    }
+                }
+                write(copyIn, buffer);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    // Текстовый формат COPY: поля через табуляцию, NULL как \N. Имена и email из фиксированных словарей
+    // не содержат спецсимволов, экранирование не нужно
+    private static void appendRow(StringBuilder buffer, User user) {
+        buffer.append(user.getId()).append('\t')
+                .append(user.getName()).append('\t')
+                .append(user.getEmail()).append('\t');
+        if (user.getAge() == null) {
+            buffer.append("\\N");
+        } else {
+            buffer.append(user.getAge());
+        }
+        buffer.append('\t').append(TIMESTAMP_FORMAT.format(user.getCreatedAt())).append('\n');
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void analyze(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE users");
+        } catch (SQLException e) {
+            throw new RuntimeException("Ошибка при обновлении статистики users", e);
+        }
+    }
+}